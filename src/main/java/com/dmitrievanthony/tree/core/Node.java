@@ -28,4 +28,37 @@ public interface Node {
      * @return Prediction.
      */
     double predict(double[] features);
+
+    /**
+     * Makes predictions for a batch of objects specified by rows of features.
+     *
+     * @param rows Features of every object.
+     * @param out Array the predictions are written into (has to have at least {@code rows.length} elements).
+     */
+    default void predict(double[][] rows, double[] out) {
+        if (out.length < rows.length)
+            throw new IllegalArgumentException("Output array is too small [rows=" + rows.length +
+                ", out=" + out.length + "]");
+
+        for (int i = 0; i < rows.length; i++)
+            out[i] = predict(rows[i]);
+    }
+
+    /**
+     * Makes predictions for a batch of objects specified by columns of features. Number of objects is defined by
+     * length of the output array.
+     *
+     * @param columns Values of every feature.
+     * @param out Array the predictions are written into.
+     */
+    default void predictColumns(double[][] columns, double[] out) {
+        double[] features = new double[columns.length];
+
+        for (int i = 0; i < out.length; i++) {
+            for (int col = 0; col < columns.length; col++)
+                features[col] = columns[col][i];
+
+            out[i] = predict(features);
+        }
+    }
 }
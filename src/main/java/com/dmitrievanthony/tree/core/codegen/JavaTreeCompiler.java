@@ -0,0 +1,337 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.codegen;
+
+import com.dmitrievanthony.tree.core.ConditionalNode;
+import com.dmitrievanthony.tree.core.LeafNode;
+import com.dmitrievanthony.tree.core.Node;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiler that transforms a decision tree into a Java class specialized for this tree. Columns and thresholds
+ * become constants of nested {@code if (f[col] > threshold)} statements, so the JIT compiles the tree into plain
+ * branch code. The class is compiled in memory using the system Java compiler and implements {@link Node}.
+ *
+ * Every {@value #LEVELS_PER_METHOD} levels of the tree are placed into a separate static method, so methods of deep
+ * trees stay small enough to be compiled and inlined by the JIT.
+ */
+public class JavaTreeCompiler {
+    /** Package of generated classes. */
+    private static final String PACKAGE = JavaTreeCompiler.class.getPackage().getName();
+
+    /** Prefix of names of generated classes. */
+    private static final String CLASS_NAME_PREFIX = "GeneratedTree";
+
+    /** Number of tree levels placed into a single method. */
+    private static final int LEVELS_PER_METHOD = 6;
+
+    /** Counter used to generate unique class names. */
+    private static final AtomicLong clsCnt = new AtomicLong();
+
+    /**
+     * Compiles the given decision tree into a Java class and returns its instance.
+     *
+     * @param node Root of the decision tree.
+     * @return Decision tree backed by the generated class.
+     */
+    public static Node compile(Node node) {
+        String clsName = CLASS_NAME_PREFIX + clsCnt.incrementAndGet();
+        String src = generateSource(node, clsName);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+            throw new IllegalStateException("Java compiler is not available (JDK is required)");
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, byte[]> classes;
+
+        try (MemoryFileManager fileMgr = new MemoryFileManager(compiler.getStandardFileManager(diagnostics, null,
+            null))) {
+            List<String> opts = Arrays.asList("-classpath", classPath(), "-g:none");
+            JavaFileObject srcFile = new SourceFile(PACKAGE + "." + clsName, src);
+
+            Boolean res = compiler.getTask(null, fileMgr, diagnostics, opts, null, Collections.singletonList(srcFile))
+                .call();
+
+            if (res == null || !res)
+                throw new IllegalStateException("Failed to compile decision tree: " + diagnostics.getDiagnostics());
+
+            classes = fileMgr.getClasses();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ClassLoader ldr = new GeneratedClassLoader(Node.class.getClassLoader(), classes);
+
+        try {
+            return (Node)ldr.loadClass(PACKAGE + "." + clsName).getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to instantiate compiled decision tree", e);
+        }
+    }
+
+    /**
+     * Generates source code of a class specialized for the given decision tree.
+     *
+     * @param node Root of the decision tree.
+     * @param clsName Simple name of the class.
+     * @return Source code.
+     */
+    public static String generateSource(Node node, String clsName) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("package ").append(PACKAGE).append(";\n\n");
+        builder.append("public final class ").append(clsName).append(" implements ")
+            .append(Node.class.getName()).append(" {\n");
+        builder.append("    @Override public double predict(double[] f) {\n");
+        builder.append("        return predict0(f);\n");
+        builder.append("    }\n");
+
+        List<Node> methods = new ArrayList<>();
+        methods.add(node);
+
+        for (int i = 0; i < methods.size(); i++) {
+            builder.append("\n    private static double predict").append(i).append("(double[] f) {\n");
+            generateNode(methods.get(i), 0, 2, methods, builder);
+            builder.append("    }\n");
+        }
+
+        builder.append("}\n");
+
+        return builder.toString();
+    }
+
+    /**
+     * Generates statements of the given node.
+     *
+     * @param node Node.
+     * @param level Level of the node inside the method.
+     * @param indent Indentation level.
+     * @param methods Roots of subtrees every method is generated for (roots of new methods are added here).
+     * @param builder Builder source code is appended to.
+     */
+    private static void generateNode(Node node, int level, int indent, List<Node> methods, StringBuilder builder) {
+        indent(builder, indent);
+
+        if (node instanceof LeafNode)
+            builder.append("return ").append(literal(((LeafNode)node).getVal())).append(";\n");
+        else if (node instanceof ConditionalNode) {
+            if (level == LEVELS_PER_METHOD) {
+                builder.append("return predict").append(methods.size()).append("(f);\n");
+                methods.add(node);
+                return;
+            }
+
+            ConditionalNode cn = (ConditionalNode)node;
+
+            builder.append("if (f[").append(cn.getCol()).append("] > ").append(literal(cn.getThreshold()))
+                .append(") {\n");
+            generateNode(cn.getThenNode(), level + 1, indent + 1, methods, builder);
+            indent(builder, indent);
+            builder.append("}\n");
+            indent(builder, indent);
+            builder.append("else {\n");
+            generateNode(cn.getElseNode(), level + 1, indent + 1, methods, builder);
+            indent(builder, indent);
+            builder.append("}\n");
+        }
+        else
+            throw new IllegalArgumentException("Unknown node type: " + node.getClass().getName());
+    }
+
+    /**
+     * Returns Java literal of the given value that is parsed into exactly the same value.
+     *
+     * @param val Value.
+     * @return Java literal.
+     */
+    private static String literal(double val) {
+        if (Double.isNaN(val) || Double.isInfinite(val))
+            return "Double.longBitsToDouble(0x" + Long.toHexString(Double.doubleToRawLongBits(val)) + "L)";
+
+        return Double.toString(val) + "D";
+    }
+
+    /** */
+    private static void indent(StringBuilder builder, int indent) {
+        for (int i = 0; i < indent; i++)
+            builder.append("    ");
+    }
+
+    /**
+     * Returns class path generated classes are compiled with. Besides the class path of the JVM it contains location
+     * of {@link Node} which may differ when the library is loaded by a custom class loader.
+     *
+     * @return Class path.
+     */
+    private static String classPath() {
+        String cp = System.getProperty("java.class.path");
+
+        CodeSource src = Node.class.getProtectionDomain().getCodeSource();
+        if (src != null && src.getLocation() != null) {
+            try {
+                cp = new File(src.getLocation().toURI()).getPath() + File.pathSeparator + cp;
+            }
+            catch (URISyntaxException | IllegalArgumentException ignored) {
+                // Location is not a file, class path of the JVM is used as is.
+            }
+        }
+
+        return cp;
+    }
+
+    /**
+     * Source file kept in memory.
+     */
+    private static class SourceFile extends SimpleJavaFileObject {
+        /** Source code. */
+        private final String src;
+
+        /**
+         * Constructs a new instance of source file.
+         *
+         * @param clsName Fully qualified class name.
+         * @param src Source code.
+         */
+        SourceFile(String clsName, String src) {
+            super(URI.create("string:///" + clsName.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.src = src;
+        }
+
+        /** {@inheritDoc} */
+        @Override public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return src;
+        }
+    }
+
+    /**
+     * Class file kept in memory.
+     */
+    private static class ClassFile extends SimpleJavaFileObject {
+        /** Bytecode. */
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        /**
+         * Constructs a new instance of class file.
+         *
+         * @param clsName Fully qualified class name.
+         */
+        ClassFile(String clsName) {
+            super(URI.create("bytes:///" + clsName.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+        }
+
+        /** {@inheritDoc} */
+        @Override public OutputStream openOutputStream() {
+            return out;
+        }
+
+        /** */
+        byte[] getBytes() {
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * File manager that keeps compiled classes in memory.
+     */
+    private static class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        /** Compiled classes by fully qualified class name. */
+        private final Map<String, ClassFile> classes = new HashMap<>();
+
+        /**
+         * Constructs a new instance of memory file manager.
+         *
+         * @param fileMgr Standard file manager used to look up existing classes.
+         */
+        MemoryFileManager(StandardJavaFileManager fileMgr) {
+            super(fileMgr);
+        }
+
+        /** {@inheritDoc} */
+        @Override public JavaFileObject getJavaFileForOutput(Location location, String clsName,
+            JavaFileObject.Kind kind, FileObject sibling) {
+            ClassFile file = new ClassFile(clsName);
+            classes.put(clsName, file);
+
+            return file;
+        }
+
+        /** */
+        Map<String, byte[]> getClasses() {
+            Map<String, byte[]> res = new HashMap<>();
+
+            for (Map.Entry<String, ClassFile> e : classes.entrySet())
+                res.put(e.getKey(), e.getValue().getBytes());
+
+            return res;
+        }
+    }
+
+    /**
+     * Class loader that defines compiled classes.
+     */
+    private static class GeneratedClassLoader extends ClassLoader {
+        /** Bytecode by fully qualified class name. */
+        private final Map<String, byte[]> classes;
+
+        /**
+         * Constructs a new instance of generated class loader.
+         *
+         * @param parent Parent class loader.
+         * @param classes Bytecode by fully qualified class name.
+         */
+        GeneratedClassLoader(ClassLoader parent, Map<String, byte[]> classes) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        /** {@inheritDoc} */
+        @Override protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+
+            if (bytes == null)
+                throw new ClassNotFoundException(name);
+
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
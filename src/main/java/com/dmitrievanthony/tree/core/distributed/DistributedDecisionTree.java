@@ -21,24 +21,71 @@ import com.dmitrievanthony.tree.core.ConditionalNode;
 import com.dmitrievanthony.tree.core.LeafNode;
 import com.dmitrievanthony.tree.core.Node;
 import com.dmitrievanthony.tree.core.distributed.dataset.Dataset;
+import com.dmitrievanthony.tree.core.distributed.dataset.Partition;
 import com.dmitrievanthony.tree.core.distributed.criteria.ImpurityMeasureCalculator;
 import com.dmitrievanthony.tree.core.distributed.criteria.ImpurityMeasure;
-import com.dmitrievanthony.tree.core.distributed.criteria.StepFunction;
+import com.dmitrievanthony.tree.core.distributed.criteria.PrimitiveStepFunction;
+import com.dmitrievanthony.tree.core.distributed.criteria.StepFunctionCompressor;
+import com.dmitrievanthony.tree.core.distributed.criteria.StepFunctionMerger;
+import com.dmitrievanthony.tree.core.distributed.histogram.FeatureBins;
+import com.dmitrievanthony.tree.core.distributed.histogram.HistogramCalculator;
+import com.dmitrievanthony.tree.utils.sort.DoubleSort;
+import java.io.Serializable;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.function.Predicate;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Distributed decision tree trainer that allows to fit trees using row-partitioned dataset.
  *
  * @param <T> Type of impurity measure.
  */
-public abstract class DistributedDecisionTree<T extends ImpurityMeasure<T>> {
+public abstract class DistributedDecisionTree<T extends ImpurityMeasure<T>> implements Serializable {
+    /** */
+    private static final long serialVersionUID = 4043942672603070891L;
+
+    /** Step function mergers of the current thread (mergers keep buffers reused between merges). */
+    private static final ThreadLocal<StepFunctionMerger> mergers = ThreadLocal.withInitial(StepFunctionMerger::new);
+
     /** Max tree deep. */
     private final int maxDeep;
 
     /** Min impurity decrease. */
     private final double minImpurityDecrease;
 
+    /**
+     * Level-wise growth flag. If {@code true} the tree is grown level by level and all nodes of a level are processed
+     * in a single pass over the dataset, otherwise the tree is grown depth-first node by node.
+     */
+    private final boolean levelWise;
+
+    /**
+     * Presorting flag. If {@code true} every partition sorts every column once and keeps the sorted indices, sorted
+     * node data is then gotten by filtering of the cached order instead of sorting.
+     */
+    private final boolean presorting;
+
+    /**
+     * Max number of bins used in histogram mode ({@code 0} if histogram mode is disabled). In histogram mode values of
+     * every column are bucketed into bins and partitions calculate fixed-size per-bin statistics.
+     */
+    private final int maxBins;
+
+    /**
+     * Step function compressor applied on partition side before reduce ({@code null} if step functions are not
+     * compressed).
+     */
+    private final StepFunctionCompressor<T> compressor;
+
+    /**
+     * Sibling subtraction flag. If {@code true} only the smaller child of every split node is scanned, impurity measure
+     * functions of its sibling are calculated as functions of the parent minus functions of the scanned child.
+     */
+    private final boolean siblingSubtraction;
+
     /**
      * Constructs a new distributed decision tree trainer.
      *
@@ -46,28 +93,82 @@ public abstract class DistributedDecisionTree<T extends ImpurityMeasure<T>> {
      * @param minImpurityDecrease Min impurity decrease.
      */
     public DistributedDecisionTree(int maxDeep, double minImpurityDecrease) {
+        this(maxDeep, minImpurityDecrease, false);
+    }
+
+    /**
+     * Constructs a new distributed decision tree trainer.
+     *
+     * @param maxDeep Max tree deep.
+     * @param minImpurityDecrease Min impurity decrease.
+     * @param levelWise Level-wise growth flag.
+     */
+    public DistributedDecisionTree(int maxDeep, double minImpurityDecrease, boolean levelWise) {
+        this(maxDeep, minImpurityDecrease, levelWise, new DistributedDecisionTreeConfig<>());
+    }
+
+    /**
+     * Constructs a new distributed decision tree trainer.
+     *
+     * @param maxDeep Max tree deep.
+     * @param minImpurityDecrease Min impurity decrease.
+     * @param levelWise Level-wise growth flag.
+     * @param cfg Configuration of optional techniques (presorting, histogram mode, compression, sibling subtraction).
+     */
+    public DistributedDecisionTree(int maxDeep, double minImpurityDecrease, boolean levelWise,
+        DistributedDecisionTreeConfig<T> cfg) {
         this.maxDeep = maxDeep;
         this.minImpurityDecrease = minImpurityDecrease;
+        this.levelWise = levelWise;
+        this.presorting = cfg.isPresorting();
+        this.maxBins = cfg.getMaxBins();
+        this.compressor = cfg.getCompressor();
+        this.siblingSubtraction = cfg.isSiblingSubtraction();
     }
 
     /**
-     * Builds a new tree trained on the specified dataset.
+     * Builds a new tree trained on the specified dataset. Streamed partitions (see {@link Partition#isStreamed()}) are
+     * supported in histogram mode only.
      *
      * @param dataset Dataset.
      * @return Decision tree.
+     * @throws IllegalArgumentException If dataset contains streamed partitions and histogram mode is disabled.
      */
     public Node fit(Dataset dataset) {
-        return split(dataset, e -> true, 0, getImpurityMeasureCalculator(dataset));
+        if (maxBins <= 0 && Boolean.TRUE.equals(dataset.compute(Partition::isStreamed, Boolean::logicalOr)))
+            throw new IllegalArgumentException("Dataset contains streamed partitions, they are supported in " +
+                "histogram mode only (see DistributedDecisionTreeConfig#withHistogram(int))");
+
+        ImpurityMeasureCalculator<T> impurityCalc = getImpurityMeasureCalculator(dataset);
+        HistogramCalculator<T> histCalc = maxBins > 0 ?
+            new HistogramCalculator<>(impurityCalc, calculateFeatureBins(dataset)) : null;
+
+        TreeGrowth growth = new TreeGrowth(impurityCalc, histCalc);
+        TreeNode root = growth.createNode();
+
+        try {
+            if (levelWise)
+                growLevelWise(dataset, growth, root);
+            else
+                split(dataset, growth, root, 0, null);
+        }
+        finally {
+            UUID fitId = growth.fitId;
+            dataset.compute(part -> NodeIdStore.release(fitId, part), Boolean::logicalOr);
+        }
+
+        return root.toNode();
     }
 
     /**
-     * Creates a leaf node.
+     * Creates leaf nodes for all nodes specified by the given node index using a single pass over the dataset.
      *
      * @param dataset Dataset.
-     * @param pred Decision tree node predicate.
-     * @return Leaf node.
+     * @param idx Node index.
+     * @param impurityCalc Impurity measure calculator.
+     * @return Leaf nodes (in the order of node positions in the index).
      */
-    abstract LeafNode createLeafNode(Dataset dataset, Predicate<double[]> pred);
+    abstract LeafNode[] createLeafNodes(Dataset dataset, NodeIndex idx, ImpurityMeasureCalculator<T> impurityCalc);
 
     /**
      * Returns impurity measure calculator.
@@ -78,95 +179,408 @@ public abstract class DistributedDecisionTree<T extends ImpurityMeasure<T>> {
     abstract ImpurityMeasureCalculator<T> getImpurityMeasureCalculator(Dataset dataset);
 
     /**
-     * Splits the node specified by the given dataset and predicate and returns decision tree node.
+     * Splits the specified node (or makes it a leaf) and grows its subtrees depth-first.
      *
      * @param dataset Dataset.
-     * @param pred Decision tree node predicate.
+     * @param growth Tree growth state.
+     * @param node Decision tree node.
      * @param deep Current tree deep.
-     * @param impurityCalc Impurity measure calculator.
-     * @return Decision tree node.
+     * @param criterionFunctions Impurity measure functions for all columns of the node if they are already calculated,
+     * otherwise {@code null}.
      */
-    private Node split(Dataset dataset, Predicate<double[]> pred, int deep, ImpurityMeasureCalculator<T> impurityCalc) {
-        if (deep >= maxDeep)
-            return createLeafNode(dataset, pred);
+    private void split(Dataset dataset, TreeGrowth growth, TreeNode node, int deep,
+        PrimitiveStepFunction[] criterionFunctions) {
+        List<TreeNode> nodes = Collections.singletonList(node);
 
-        StepFunction<T>[] criterionFunctions = calculateImpurityForAllColumns(dataset, pred, impurityCalc);
+        if (deep >= maxDeep) {
+            createLeafNodes(dataset, growth, nodes);
+            return;
+        }
 
         if (criterionFunctions == null)
-            return createLeafNode(dataset, pred);
+            criterionFunctions = calculateImpurityForAllColumns(dataset, growth, nodes)[0];
+
+        SplitPoint splitPnt = criterionFunctions == null ? null :
+            calculateBestSplitPoint(criterionFunctions, growth.impurityCalc);
+
+        if (splitPnt == null) {
+            createLeafNodes(dataset, growth, nodes);
+            return;
+        }
+
+        growth.split(node, splitPnt);
+
+        PrimitiveStepFunction[][] childrenFunctions = new PrimitiveStepFunction[2][];
+
+        if (isSiblingSubtractionEnabled() && deep + 1 < maxDeep) {
+            childrenFunctions = calculateChildrenImpurity(dataset, growth, nodes,
+                new PrimitiveStepFunction[][] {criterionFunctions});
+        }
+
+        split(dataset, growth, node.thenNode, deep + 1, childrenFunctions[0]);
+        split(dataset, growth, node.elseNode, deep + 1, childrenFunctions[1]);
+    }
+
+    /**
+     * Grows a tree level by level. Impurity measure functions for all nodes of the current level are calculated in a
+     * single pass over the dataset, values of all leaves are calculated in a single pass when the tree is grown.
+     *
+     * @param dataset Dataset.
+     * @param growth Tree growth state.
+     * @param root Root node.
+     */
+    private void growLevelWise(Dataset dataset, TreeGrowth growth, TreeNode root) {
+        List<TreeNode> frontier = Collections.singletonList(root);
+        List<TreeNode> leaves = new ArrayList<>();
+
+        List<TreeNode> parents = null;
+        List<PrimitiveStepFunction[]> parentFunctions = null;
+
+        for (int deep = 0; deep < maxDeep && !frontier.isEmpty(); deep++) {
+            PrimitiveStepFunction[][] criterionFunctions = parents == null ?
+                calculateImpurityForAllColumns(dataset, growth, frontier) :
+                calculateChildrenImpurity(dataset, growth, parents,
+                    parentFunctions.toArray(new PrimitiveStepFunction[parentFunctions.size()][]));
+
+            List<TreeNode> nextFrontier = new ArrayList<>();
+            List<TreeNode> splitNodes = new ArrayList<>();
+            List<PrimitiveStepFunction[]> splitNodeFunctions = new ArrayList<>();
+
+            for (int i = 0; i < frontier.size(); i++) {
+                TreeNode node = frontier.get(i);
+
+                SplitPoint splitPnt = criterionFunctions[i] == null ? null :
+                    calculateBestSplitPoint(criterionFunctions[i], growth.impurityCalc);
+
+                if (splitPnt == null)
+                    leaves.add(node);
+                else {
+                    growth.split(node, splitPnt);
+                    nextFrontier.add(node.thenNode);
+                    nextFrontier.add(node.elseNode);
+                    splitNodes.add(node);
+                    splitNodeFunctions.add(criterionFunctions[i]);
+                }
+            }
+
+            if (isSiblingSubtractionEnabled()) {
+                parents = splitNodes;
+                parentFunctions = splitNodeFunctions;
+            }
+
+            frontier = nextFrontier;
+        }
+
+        leaves.addAll(frontier);
+
+        createLeafNodes(dataset, growth, leaves);
+    }
+
+    /**
+     * Calculates impurity measure functions for all columns for both children of every specified node. Only the smaller
+     * child of every node is scanned, functions of its sibling are calculated as functions of the parent minus
+     * functions of the scanned child.
+     *
+     * @param dataset Dataset.
+     * @param growth Tree growth state.
+     * @param parents Split nodes.
+     * @param parentFunctions Impurity measure functions for all columns for every split node.
+     * @return Array of impurity measure functions for all columns for every child (then and else children of every
+     * node one after another, {@code null} if child is empty).
+     */
+    private PrimitiveStepFunction[][] calculateChildrenImpurity(Dataset dataset, TreeGrowth growth,
+        List<TreeNode> parents, PrimitiveStepFunction[][] parentFunctions) {
+        List<TreeNode> smallerChildren = new ArrayList<>(parents.size());
+
+        for (TreeNode parent : parents) {
+            SplitPoint splitPnt = parent.splitPnt;
+            smallerChildren.add(splitPnt.thenCnt < splitPnt.elseCnt ? parent.thenNode : parent.elseNode);
+        }
 
-        SplitPoint splitPnt = calculateBestSplitPoint(criterionFunctions);
+        PrimitiveStepFunction[][] smallerChildrenFunctions = calculateImpurityForAllColumns(dataset, growth,
+            smallerChildren);
 
-        if (splitPnt == null)
-            return createLeafNode(dataset, pred);
+        PrimitiveStepFunction[][] res = new PrimitiveStepFunction[2 * parents.size()][];
 
-        return new ConditionalNode(
-            splitPnt.col,
-            splitPnt.threshold,
-            split(dataset, updatePredicateForThenNode(pred, splitPnt), deep + 1, impurityCalc),
-            split(dataset, updatePredicateForElseNode(pred, splitPnt), deep + 1, impurityCalc)
+        for (int i = 0; i < parents.size(); i++) {
+            PrimitiveStepFunction[] scanned = smallerChildrenFunctions[i];
+            PrimitiveStepFunction[] sibling = parentFunctions[i];
+
+            if (scanned != null) {
+                sibling = Arrays.copyOf(sibling, sibling.length);
+                for (int col = 0; col < sibling.length; col++)
+                    sibling[col] = sibling[col].subtract(scanned[col], growth.impurityCalc);
+            }
+
+            boolean thenScanned = smallerChildren.get(i) == parents.get(i).thenNode;
+
+            res[2 * i] = thenScanned ? scanned : sibling;
+            res[2 * i + 1] = thenScanned ? sibling : scanned;
+        }
+
+        return res;
+    }
+
+    /**
+     * Creates leaf nodes for all specified nodes using a single pass over the dataset.
+     *
+     * @param dataset Dataset.
+     * @param growth Tree growth state.
+     * @param nodes Decision tree nodes.
+     */
+    private void createLeafNodes(Dataset dataset, TreeGrowth growth, List<TreeNode> nodes) {
+        LeafNode[] leafNodes = createLeafNodes(dataset, growth.createIndex(nodes), growth.impurityCalc);
+
+        for (int i = 0; i < leafNodes.length; i++)
+            nodes.get(i).leaf = leafNodes[i];
+    }
+
+    /**
+     * Calculates feature bins used in histogram mode using a single pass over the dataset.
+     *
+     * @param dataset Dataset.
+     * @return Feature bins.
+     */
+    private FeatureBins calculateFeatureBins(Dataset dataset) {
+        double[][] bounds = dataset.compute(
+            part -> FeatureBins.calculateBounds(part, maxBins),
+            (a, b) -> FeatureBins.mergeBounds(a, b, maxBins)
         );
+
+        return new FeatureBins(bounds);
     }
 
     /**
-     * Calculates impurity measure functions for all columns for the node specified by the given dataset and predicate.
+     * Calculates impurity measure functions for all columns for all specified nodes using a single pass over the
+     * dataset.
      *
      * @param dataset Dataset.
-     * @param pred Decision tree node predicate.
+     * @param growth Tree growth state.
+     * @param nodes Decision tree nodes.
+     * @return Array of impurity measure functions for all columns for every node ({@code null} if node is empty).
+     */
+    private PrimitiveStepFunction[][] calculateImpurityForAllColumns(Dataset dataset, TreeGrowth growth,
+        List<TreeNode> nodes) {
+        NodeIndex idx = growth.createIndex(nodes);
+        ImpurityMeasureCalculator<T> impurityCalc = growth.impurityCalc;
+        HistogramCalculator<T> histCalc = growth.histCalc;
+
+        if (histCalc != null) {
+            double[][][] hist = dataset.compute(part -> calculateHistograms(part, idx, histCalc), this::reduce);
+
+            PrimitiveStepFunction[][] res = new PrimitiveStepFunction[idx.size()][];
+            for (int node = 0; node < res.length; node++)
+                res[node] = hist[node] == null ? null : histCalc.toStepFunctions(hist[node]);
+
+            return res;
+        }
+
+        return dataset.compute(
+            part -> compress(presorting ? calculateImpurityUsingSortedIndices(part, idx, impurityCalc) :
+                calculateImpurity(part, idx, impurityCalc), impurityCalc),
+            this::reduce
+        );
+    }
+
+    /**
+     * Calculates impurity measure functions for all columns for all nodes specified by the given node index on the
+     * given partition. Values of every column of every node are copied and sorted.
+     *
+     * @param part Partition.
+     * @param idx Node index.
      * @param impurityCalc Impurity measure calculator.
-     * @return Array of impurity measure functions for all columns.
+     * @return Array of impurity measure functions for all columns for every node ({@code null} if node is empty).
      */
-    private StepFunction<T>[] calculateImpurityForAllColumns(Dataset dataset, Predicate<double[]> pred,
+    private PrimitiveStepFunction[][] calculateImpurity(Partition part, NodeIndex idx,
         ImpurityMeasureCalculator<T> impurityCalc) {
-        return dataset.compute(
-            part -> {
-                double[][] allFeatures = part.getFeatures();
-                double[] allLabels = part.getLabels();
-
-                int nodeSize = 0;
-                for (int i = 0; i < allFeatures.length; i++)
-                    nodeSize += pred.test(allFeatures[i]) ? 1 : 0;
-
-                if (nodeSize != 0) {
-                    double[][] nodeFeatures = new double[nodeSize][];
-                    double[] nodeLabels = new double[nodeSize];
-
-                    int ptr = 0;
-                    for (int i = 0; i < allFeatures.length; i++) {
-                        if (pred.test(allFeatures[i])) {
-                            nodeFeatures[ptr] = allFeatures[i];
-                            nodeLabels[ptr] = allLabels[i];
-                            ptr++;
-                        }
-                    }
-
-                    return impurityCalc.calculate(nodeFeatures, nodeLabels);
+        DoubleBuffer allLabels = part.getLabels();
+
+        int[] nodeIds = idx.update(part);
+        int[] nodeSizes = calculateNodeSizes(nodeIds, idx);
+
+        PrimitiveStepFunction[][] res = new PrimitiveStepFunction[idx.size()][];
+
+        for (int node = 0; node < res.length; node++) {
+            if (nodeSizes[node] == 0)
+                continue;
+
+            int[] nodeRows = new int[nodeSizes[node]];
+
+            int ptr = 0;
+            for (int i = 0; i < nodeIds.length; i++)
+                if (idx.position(nodeIds[i]) == node)
+                    nodeRows[ptr++] = i;
+
+            res[node] = new PrimitiveStepFunction[part.getColumnsCnt()];
+
+            double[] x = new double[nodeRows.length];
+            double[] nodeLabels = new double[nodeRows.length];
+
+            for (int col = 0; col < res[node].length; col++) {
+                DoubleBuffer column = part.getColumn(col);
+
+                for (int i = 0; i < nodeRows.length; i++) {
+                    x[i] = column.get(nodeRows[i]);
+                    nodeLabels[i] = allLabels.get(nodeRows[i]);
                 }
 
-                return null;
-            },
-            this::reduce
-        );
+                DoubleSort.sort(x, nodeLabels);
+
+                res[node][col] = impurityCalc.calculatePrimitive(x, nodeLabels);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Calculates impurity measure functions for all columns for all nodes specified by the given node index on the
+     * given partition. Sorted data of every node is gotten by filtering of the sorted indices cached by the partition,
+     * so nothing is sorted.
+     *
+     * @param part Partition.
+     * @param idx Node index.
+     * @param impurityCalc Impurity measure calculator.
+     * @return Array of impurity measure functions for all columns for every node ({@code null} if node is empty).
+     */
+    private PrimitiveStepFunction[][] calculateImpurityUsingSortedIndices(Partition part, NodeIndex idx,
+        ImpurityMeasureCalculator<T> impurityCalc) {
+        DoubleBuffer allLabels = part.getLabels();
+        int[][] sortedIndices = part.getSortedIndices();
+
+        int[] nodeIds = idx.update(part);
+        int[] nodeSizes = calculateNodeSizes(nodeIds, idx);
+
+        double[][] nodeX = new double[idx.size()][];
+        double[][] nodeLabels = new double[idx.size()][];
+
+        for (int node = 0; node < nodeX.length; node++) {
+            if (nodeSizes[node] != 0) {
+                nodeX[node] = new double[nodeSizes[node]];
+                nodeLabels[node] = new double[nodeSizes[node]];
+            }
+        }
+
+        PrimitiveStepFunction[][] res = new PrimitiveStepFunction[idx.size()][];
+        for (int node = 0; node < res.length; node++)
+            res[node] = nodeSizes[node] == 0 ? null : new PrimitiveStepFunction[sortedIndices.length];
+
+        int[] ptrs = new int[idx.size()];
+
+        for (int col = 0; col < sortedIndices.length; col++) {
+            DoubleBuffer column = part.getColumn(col);
+
+            Arrays.fill(ptrs, 0);
+
+            for (int row : sortedIndices[col]) {
+                int node = idx.position(nodeIds[row]);
+
+                if (node >= 0) {
+                    int ptr = ptrs[node]++;
+                    nodeX[node][ptr] = column.get(row);
+                    nodeLabels[node][ptr] = allLabels.get(row);
+                }
+            }
+
+            for (int node = 0; node < res.length; node++)
+                if (res[node] != null)
+                    res[node][col] = impurityCalc.calculatePrimitive(nodeX[node], nodeLabels[node]);
+        }
+
+        return res;
+    }
+
+    /**
+     * Calculates histograms of all columns for all nodes specified by the given node index on the given partition.
+     * Data of the partition is read chunk by chunk, so streamed partitions are supported.
+     *
+     * @param part Partition.
+     * @param idx Node index.
+     * @param histCalc Histogram calculator.
+     * @return Histograms of all columns for every node ({@code null} if node is empty).
+     */
+    private double[][][] calculateHistograms(Partition part, NodeIndex idx, HistogramCalculator<T> histCalc) {
+        int[] nodeIds = idx.update(part);
+        int[] positions = new int[nodeIds.length];
+
+        double[][][] res = new double[idx.size()][][];
+
+        for (int i = 0; i < nodeIds.length; i++) {
+            int node = idx.position(nodeIds[i]);
+
+            if (node >= 0 && res[node] == null)
+                res[node] = histCalc.createHistograms();
+
+            positions[i] = node;
+        }
+
+        int off = 0;
+
+        for (Partition chunk : part.getChunks()) {
+            DoubleBuffer labels = chunk.getLabels();
+
+            for (int col = 0; col < chunk.getColumnsCnt(); col++) {
+                DoubleBuffer column = chunk.getColumn(col);
+
+                for (int i = 0; i < chunk.getRowsCnt(); i++)
+                    if (positions[off + i] >= 0)
+                        histCalc.add(res[positions[off + i]], col, column.get(i), labels.get(i));
+            }
+
+            off += chunk.getRowsCnt();
+        }
+
+        return res;
+    }
+
+    /**
+     * Calculates number of rows in every node specified by the given node index.
+     *
+     * @param nodeIds Identifiers of decision tree nodes every row belongs to.
+     * @param idx Node index.
+     * @return Number of rows in every node.
+     */
+    private static int[] calculateNodeSizes(int[] nodeIds, NodeIndex idx) {
+        int[] nodeSizes = new int[idx.size()];
+
+        for (int nodeId : nodeIds) {
+            int node = idx.position(nodeId);
+            if (node >= 0)
+                nodeSizes[node]++;
+        }
+
+        return nodeSizes;
     }
 
     /**
      * Calculates best split point.
      *
      * @param criterionFunctions  Array of impurity measure functions for all columns.
+     * @param impurityCalc Impurity measure calculator.
      * @return Best split point.
      */
-    private SplitPoint calculateBestSplitPoint(StepFunction<T>[] criterionFunctions) {
+    private SplitPoint calculateBestSplitPoint(PrimitiveStepFunction[] criterionFunctions,
+        ImpurityMeasureCalculator<T> impurityCalc) {
         SplitPoint res = null;
 
+        double[] buf = new double[impurityCalc.getStatisticsSize()];
+
         for (int col = 0; col < criterionFunctions.length; col++) {
-            StepFunction<T> criterionFunctionForCol = criterionFunctions[col];
+            PrimitiveStepFunction criterionFunctionForCol = criterionFunctions[col];
 
             double[] arguments = criterionFunctionForCol.getX();
-            T[] values = criterionFunctionForCol.getY();
+            double initImpurity = criterionFunctionForCol.impurity(0, impurityCalc, buf);
+
+            for (int leftSize = 1; leftSize < arguments.length - 1; leftSize++) {
+                double impurity = criterionFunctionForCol.impurity(leftSize, impurityCalc, buf);
 
-            for (int leftSize = 1; leftSize < values.length - 1; leftSize++) {
-                if ((values[0].impurity() - values[leftSize].impurity()) > minImpurityDecrease && (res == null || values[leftSize].compareTo(res.val) < 0))
-                    res = new SplitPoint(values[leftSize], col, calculateThreshold(arguments, leftSize));
+                if ((initImpurity - impurity) > minImpurityDecrease && (res == null || Double.compare(impurity, res.val) < 0)) {
+                    double totalCnt = impurityCalc.getCount(criterionFunctionForCol.getTotal(), 0);
+                    double elseCnt = impurityCalc.getCount(criterionFunctionForCol.getLeft(), leftSize * buf.length);
+
+                    res = new SplitPoint(impurity, col, calculateThreshold(arguments, leftSize), totalCnt - elseCnt,
+                        elseCnt);
+                }
             }
         }
 
@@ -174,56 +588,98 @@ public abstract class DistributedDecisionTree<T extends ImpurityMeasure<T>> {
     }
 
     /**
-     * Merges two arrays gotten from two partitions.
+     * Checks if sibling subtraction is enabled and applicable.
+     *
+     * @return {@code true} if functions of a child can be calculated as functions of the parent minus functions of its
+     * sibling.
+     */
+    private boolean isSiblingSubtractionEnabled() {
+        return siblingSubtraction && compressor == null;
+    }
+
+    /**
+     * Compresses step functions of every node and column using the compressor (if it's specified).
+     *
+     * @param functions Step functions of every node and column ({@code null} if node is empty).
+     * @param impurityCalc Impurity measure calculator.
+     * @return Compressed step functions (the same array updated in place).
+     */
+    private PrimitiveStepFunction[][] compress(PrimitiveStepFunction[][] functions,
+        ImpurityMeasureCalculator<T> impurityCalc) {
+        if (compressor == null)
+            return functions;
+
+        for (PrimitiveStepFunction[] nodeFunctions : functions)
+            if (nodeFunctions != null)
+                for (int col = 0; col < nodeFunctions.length; col++)
+                    nodeFunctions[col] = compressor.compress(nodeFunctions[col], impurityCalc);
+
+        return functions;
+    }
+
+    /**
+     * Merges step functions of several nodes gotten from two sets of partitions. Functions of the first set are used
+     * as an accumulator, so reduce keeps a single set of functions per reduce node and functions are merged where they
+     * are reduced (on workers and threads of the compute backend) instead of on the caller.
+     *
+     * @param a Step functions of every node and column of the first set of partitions (updated in place).
+     * @param b Step functions of every node and column of the second set of partitions.
+     * @return Merged step functions for every node ({@code null} if node is empty).
+     */
+    private PrimitiveStepFunction[][] reduce(PrimitiveStepFunction[][] a, PrimitiveStepFunction[][] b) {
+        if (a == null)
+            return b;
+        else if (b == null)
+            return a;
+
+        StepFunctionMerger merger = mergers.get();
+
+        for (int node = 0; node < a.length; node++) {
+            if (a[node] == null)
+                a[node] = b[node];
+            else if (b[node] != null) {
+                for (int col = 0; col < a[node].length; col++)
+                    a[node][col] = merger.merge(a[node][col], b[node][col]);
+            }
+        }
+
+        return a;
+    }
+
+    /**
+     * Merges histograms of several nodes gotten from two partitions.
      *
-     * @param a First step function.
-     * @param b Second step function.
-     * @return Merged step function.
+     * @param a First array of histograms for every node (updated in place).
+     * @param b Second array of histograms for every node.
+     * @return Merged histograms for every node.
      */
-    private StepFunction<T>[] reduce(StepFunction<T>[] a, StepFunction<T>[] b) {
+    private double[][][] reduce(double[][][] a, double[][][] b) {
         if (a == null)
             return b;
         if (b == null)
             return a;
         else {
-            StepFunction<T>[] res = Arrays.copyOf(a, a.length);
-            for (int i = 0; i < res.length; i++)
-                res[i] = res[i].add(b[i]);
-            return res;
+            for (int i = 0; i < a.length; i++)
+                a[i] = HistogramCalculator.merge(a[i], b[i]);
+            return a;
         }
     }
 
     /**
-     * Calculates threshold based on the given step function arguments and split point (specified left size).
+     * Calculates threshold based on the given step function arguments and split point (specified left size). In
+     * histogram mode arguments are bin bounds and they are used as thresholds as is. If step functions are compressed
+     * the argument is used as is as well: rows with values between the argument and the next kept argument might
+     * belong to dropped steps which statistics are counted on the right side of the split.
      *
      * @param arguments Step function arguments.
      * @param leftSize Split point (left size).
      * @return Threshold.
      */
     private double calculateThreshold(double[] arguments, int leftSize) {
-        return (arguments[leftSize] + arguments[leftSize + 1]) / 2.0;
-    }
-
-    /**
-     * Constructs a new predicate for "then" node based on the parent node predicate and split point.
-     *
-     * @param pred Parent node predicate.
-     * @param splitPnt Split point.
-     * @return Predicate for "then" node.
-     */
-    private Predicate<double[]> updatePredicateForThenNode(Predicate<double[]> pred, SplitPoint splitPnt) {
-        return pred.and(f -> f[splitPnt.col] > splitPnt.threshold);
-    }
+        if (maxBins > 0 || compressor != null)
+            return arguments[leftSize];
 
-    /**
-     * Constructs a new predicate for "else" node based on the parent node predicate and split point.
-     *
-     * @param pred Parent node predicate.
-     * @param splitPnt Split point.
-     * @return Predicate for "else" node.
-     */
-    private Predicate<double[]> updatePredicateForElseNode(Predicate<double[]> pred, SplitPoint splitPnt) {
-        return pred.and(f -> f[splitPnt.col] <= splitPnt.threshold);
+        return (arguments[leftSize] + arguments[leftSize + 1]) / 2.0;
     }
 
     /**
@@ -231,7 +687,7 @@ public abstract class DistributedDecisionTree<T extends ImpurityMeasure<T>> {
      */
     private class SplitPoint {
         /** Split point impurity measure value. */
-        private final T val;
+        private final double val;
 
         /** Column. */
         private final int col;
@@ -239,17 +695,149 @@ public abstract class DistributedDecisionTree<T extends ImpurityMeasure<T>> {
         /** Threshold. */
         private final double threshold;
 
+        /** Number of rows with value greater than threshold. */
+        private final double thenCnt;
+
+        /** Number of rows with value not greater than threshold. */
+        private final double elseCnt;
+
         /**
          * Constructs a new instance of split point.
          *
          * @param val Split point impurity measure value.
          * @param col Column.
          * @param threshold Threshold.
+         * @param thenCnt Number of rows with value greater than threshold.
+         * @param elseCnt Number of rows with value not greater than threshold.
          */
-        public SplitPoint(T val, int col, double threshold) {
+        public SplitPoint(double val, int col, double threshold, double thenCnt, double elseCnt) {
             this.val = val;
             this.col = col;
             this.threshold = threshold;
+            this.thenCnt = thenCnt;
+            this.elseCnt = elseCnt;
+        }
+    }
+
+    /**
+     * Util class that represents a node of the tree being grown.
+     */
+    private class TreeNode {
+        /** Node identifier. */
+        private final int id;
+
+        /** Split point (if node is conditional). */
+        private SplitPoint splitPnt;
+
+        /** Node that will be used in case tested value is greater then threshold. */
+        private TreeNode thenNode;
+
+        /** Node that will be used in case tested value is not greater then threshold. */
+        private TreeNode elseNode;
+
+        /** Leaf node (if node is a leaf). */
+        private LeafNode leaf;
+
+        /**
+         * Constructs a new instance of tree node.
+         *
+         * @param id Node identifier.
+         */
+        TreeNode(int id) {
+            this.id = id;
+        }
+
+        /**
+         * Converts this node into decision tree node.
+         *
+         * @return Decision tree node.
+         */
+        Node toNode() {
+            if (splitPnt == null)
+                return leaf;
+
+            return new ConditionalNode(splitPnt.col, splitPnt.threshold, thenNode.toNode(), elseNode.toNode());
+        }
+    }
+
+    /**
+     * Util class that keeps state of the tree being grown: calculators, allocated node identifiers and splits that
+     * haven't been applied to node identifiers kept for partitions yet.
+     */
+    private class TreeGrowth {
+        /** Identifier of the training node identifiers of partitions are kept under (see {@link NodeIdStore}). */
+        private final UUID fitId = UUID.randomUUID();
+
+        /** Impurity measure calculator. */
+        private final ImpurityMeasureCalculator<T> impurityCalc;
+
+        /** Histogram calculator ({@code null} if histogram mode is disabled). */
+        private final HistogramCalculator<T> histCalc;
+
+        /** Splits made since the previous pass over the dataset. */
+        private final List<TreeNode> pendingSplits = new ArrayList<>();
+
+        /** Number of allocated node identifiers. */
+        private int nodeCnt;
+
+        /** Flag that shows that no passes over the dataset have been made yet. */
+        private boolean firstPass = true;
+
+        /**
+         * Constructs a new instance of tree growth state.
+         *
+         * @param impurityCalc Impurity measure calculator.
+         * @param histCalc Histogram calculator ({@code null} if histogram mode is disabled).
+         */
+        TreeGrowth(ImpurityMeasureCalculator<T> impurityCalc, HistogramCalculator<T> histCalc) {
+            this.impurityCalc = impurityCalc;
+            this.histCalc = histCalc;
+        }
+
+        /**
+         * Creates a new node with unique identifier.
+         *
+         * @return Tree node.
+         */
+        TreeNode createNode() {
+            return new TreeNode(nodeCnt++);
+        }
+
+        /**
+         * Makes the given node conditional and creates its children.
+         *
+         * @param node Tree node.
+         * @param splitPnt Split point.
+         */
+        void split(TreeNode node, SplitPoint splitPnt) {
+            node.splitPnt = splitPnt;
+            node.thenNode = createNode();
+            node.elseNode = createNode();
+
+            pendingSplits.add(node);
+        }
+
+        /**
+         * Creates node index for the next pass over the dataset which processes the specified nodes. All pending
+         * splits are applied as part of this pass.
+         *
+         * @param nodes Nodes to be processed.
+         * @return Node index.
+         */
+        NodeIndex createIndex(List<TreeNode> nodes) {
+            int[] nodeIds = new int[nodes.size()];
+            for (int i = 0; i < nodeIds.length; i++)
+                nodeIds[i] = nodes.get(i).id;
+
+            NodeIndex idx = new NodeIndex(fitId, firstPass, nodeCnt, nodeIds);
+
+            for (TreeNode node : pendingSplits)
+                idx.addSplit(node.id, node.splitPnt.col, node.splitPnt.threshold, node.thenNode.id, node.elseNode.id);
+
+            pendingSplits.clear();
+            firstPass = false;
+
+            return idx;
         }
     }
 }
@@ -22,17 +22,18 @@ import com.dmitrievanthony.tree.core.distributed.criteria.GiniImpurityMeasure;
 import com.dmitrievanthony.tree.core.distributed.criteria.GiniImpurityMeasureCalculator;
 import com.dmitrievanthony.tree.core.distributed.criteria.ImpurityMeasureCalculator;
 import com.dmitrievanthony.tree.core.distributed.dataset.Dataset;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-import java.util.function.Predicate;
+import com.dmitrievanthony.tree.core.distributed.dataset.Partition;
+import com.dmitrievanthony.tree.utils.LabelEncoder;
+import java.nio.DoubleBuffer;
 
 /**
  * Decision tree classifier based on distributed decision tree trainer that allows to fit trees using row-partitioned
  * dataset.
  */
 public class DistributedDecisionTreeClassifier extends DistributedDecisionTree<GiniImpurityMeasure> {
+    /** */
+    private static final long serialVersionUID = 644408189256779764L;
+
     /**
      * Constructs a new instance of decision tree classifier.
      *
@@ -43,80 +44,108 @@ public class DistributedDecisionTreeClassifier extends DistributedDecisionTree<G
         super(maxDeep, minImpurityDecrease);
     }
 
+    /**
+     * Constructs a new instance of decision tree classifier.
+     *
+     * @param maxDeep Max tree deep.
+     * @param minImpurityDecrease Min impurity decrease.
+     * @param levelWise Level-wise growth flag.
+     */
+    public DistributedDecisionTreeClassifier(int maxDeep, double minImpurityDecrease, boolean levelWise) {
+        super(maxDeep, minImpurityDecrease, levelWise);
+    }
+
+    /**
+     * Constructs a new instance of decision tree classifier.
+     *
+     * @param maxDeep Max tree deep.
+     * @param minImpurityDecrease Min impurity decrease.
+     * @param levelWise Level-wise growth flag.
+     * @param cfg Configuration of optional techniques (presorting, histogram mode, compression, sibling subtraction).
+     */
+    public DistributedDecisionTreeClassifier(int maxDeep, double minImpurityDecrease, boolean levelWise,
+        DistributedDecisionTreeConfig<GiniImpurityMeasure> cfg) {
+        super(maxDeep, minImpurityDecrease, levelWise, cfg);
+    }
+
     /** {@inheritDoc} */
-    @Override LeafNode createLeafNode(Dataset dataset, Predicate<double[]> pred) {
-        Map<Double, Integer> cnt = dataset.compute(part -> {
-            Map<Double, Integer> map = new HashMap<>();
-
-            double[][] features = part.getFeatures();
-            double[] labels = part.getLabels();
-
-            for (int i = 0; i < features.length; i++) {
-                if (pred.test(features[i])) {
-                    double lb = labels[i];
-                    if (map.containsKey(lb))
-                        map.put(lb, map.get(lb) + 1);
-                    else
-                        map.put(lb, 1);
+    @Override LeafNode[] createLeafNodes(Dataset dataset, NodeIndex idx,
+        ImpurityMeasureCalculator<GiniImpurityMeasure> impurityCalc) {
+        LabelEncoder encoder = ((GiniImpurityMeasureCalculator)impurityCalc).getLabelEncoder();
+
+        long[][] cnt = dataset.compute(part -> {
+            long[][] res = new long[idx.size()][encoder.size()];
+
+            int[] nodeIds = idx.update(part);
+
+            int off = 0;
+            for (Partition chunk : part.getChunks()) {
+                DoubleBuffer labels = chunk.getLabels();
+
+                for (int i = 0; i < chunk.getRowsCnt(); i++) {
+                    int node = idx.position(nodeIds[off + i]);
+                    if (node >= 0)
+                        res[node][encoder.encode(labels.get(i))]++;
                 }
+
+                off += chunk.getRowsCnt();
             }
 
-            return map;
+            return res;
         }, this::reduce);
 
-        double bestVal = 0;
-        int bestCnt = -1;
+        LeafNode[] res = new LeafNode[idx.size()];
 
-        for (Map.Entry<Double, Integer> e : cnt.entrySet()) {
-            if (e.getValue() > bestCnt) {
-                bestCnt = e.getValue();
-                bestVal = e.getKey();
-            }
+        for (int node = 0; node < res.length; node++) {
+            int bestCode = 0;
+
+            for (int code = 1; code < encoder.size(); code++)
+                if (cnt[node][code] > cnt[node][bestCode])
+                    bestCode = code;
+
+            res[node] = new LeafNode(encoder.size() > 0 ? encoder.decode(bestCode) : 0);
         }
 
-        return new LeafNode(bestVal);
+        return res;
     }
 
     /** {@inheritDoc} */
     @Override ImpurityMeasureCalculator<GiniImpurityMeasure> getImpurityMeasureCalculator(Dataset dataset) {
-        Set<Double> labels = dataset.compute(part -> {
-            Set<Double> list = new HashSet<>();
-
-            for (double lb : part.getLabels())
-                list.add(lb);
-
-            return list;
-        }, (a, b) -> {
-            if (a == null)
-                return b;
-            else if (b == null)
-                return a;
-            else {
-                a.addAll(b);
-                return a;
+        double[] labels = dataset.compute(part -> {
+            double[] res = null;
+
+            for (Partition chunk : part.getChunks()) {
+                DoubleBuffer chunkLabels = chunk.getLabels();
+
+                double[] arr = new double[chunk.getRowsCnt()];
+                chunkLabels.duplicate().get(arr);
+
+                res = LabelEncoder.mergeDistinct(res, LabelEncoder.distinct(arr, 0, arr.length));
             }
-        });
 
-        Map<Double, Integer> encoder = new HashMap<>();
-        int idx = 0;
-        for (Double lb : labels)
-            encoder.put(lb, idx++);
+            return res;
+        }, LabelEncoder::mergeDistinct);
 
-        return new GiniImpurityMeasureCalculator(encoder);
+        return new GiniImpurityMeasureCalculator(new LabelEncoder(labels == null ? new double[0] : labels));
     }
 
-    private Map<Double, Integer> reduce(Map<Double, Integer> a, Map<Double, Integer> b) {
+    /**
+     * Sums class counters of two parts of the dataset.
+     *
+     * @param a First class counters of every node.
+     * @param b Second class counters of every node.
+     * @return Sum of class counters of every node.
+     */
+    private long[][] reduce(long[][] a, long[][] b) {
         if (a == null)
             return b;
         else if (b == null)
             return a;
         else {
-            for (Map.Entry<Double, Integer> e : b.entrySet()) {
-                if (a.containsKey(e.getKey()))
-                    a.put(e.getKey(), a.get(e.getKey()) + e.getValue());
-                else
-                    a.put(e.getKey(), e.getValue());
-            }
+            for (int node = 0; node < a.length; node++)
+                for (int code = 0; code < a[node].length; code++)
+                    a[node][code] += b[node][code];
+
             return a;
         }
     }
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed;
+
+import com.dmitrievanthony.tree.core.distributed.criteria.ImpurityMeasure;
+import com.dmitrievanthony.tree.core.distributed.criteria.StepFunctionCompressor;
+import java.io.Serializable;
+
+/**
+ * Immutable configuration of optional techniques used by {@link DistributedDecisionTree}. By default all of them are
+ * disabled. Methods {@code with*} don't change the configuration, they return a changed copy.
+ *
+ * @param <T> Type of impurity measure.
+ */
+public class DistributedDecisionTreeConfig<T extends ImpurityMeasure<T>> implements Serializable {
+    /** */
+    private static final long serialVersionUID = 2954163018245617043L;
+
+    /**
+     * Presorting flag. If {@code true} every partition sorts every column once and keeps the sorted indices, sorted
+     * node data is then gotten by filtering of the cached order instead of sorting.
+     */
+    private final boolean presorting;
+
+    /**
+     * Max number of bins used in histogram mode ({@code 0} if histogram mode is disabled). In histogram mode values of
+     * every column are bucketed into bins and partitions calculate fixed-size per-bin statistics.
+     */
+    private final int maxBins;
+
+    /**
+     * Step function compressor applied on partition side before reduce ({@code null} if step functions are not
+     * compressed).
+     */
+    private final StepFunctionCompressor<T> compressor;
+
+    /**
+     * Sibling subtraction flag. If {@code true} only the smaller child of every split node is scanned, impurity measure
+     * functions of its sibling are calculated as functions of the parent minus functions of the scanned child.
+     */
+    private final boolean siblingSubtraction;
+
+    /**
+     * Constructs a new instance of configuration with all techniques disabled.
+     */
+    public DistributedDecisionTreeConfig() {
+        this(false, 0, null, false);
+    }
+
+    /**
+     * Constructs a new instance of configuration.
+     *
+     * @param presorting Presorting flag.
+     * @param maxBins Max number of bins ({@code 0} to disable histogram mode).
+     * @param compressor Step function compressor ({@code null} to disable compression).
+     * @param siblingSubtraction Sibling subtraction flag.
+     */
+    public DistributedDecisionTreeConfig(boolean presorting, int maxBins, StepFunctionCompressor<T> compressor,
+        boolean siblingSubtraction) {
+        if (maxBins == 1 || maxBins < 0)
+            throw new IllegalArgumentException("Max number of bins has to be 0 or greater than 1");
+
+        this.presorting = presorting;
+        this.maxBins = maxBins;
+        this.compressor = compressor;
+        this.siblingSubtraction = siblingSubtraction;
+    }
+
+    /**
+     * Returns a copy of this configuration with the specified presorting flag. If {@code true} every partition sorts
+     * every column once and keeps the sorted indices, sorted node data is then gotten by filtering of the cached order
+     * instead of sorting.
+     *
+     * @param presorting Presorting flag.
+     * @return Changed copy of this configuration.
+     */
+    public DistributedDecisionTreeConfig<T> withPresorting(boolean presorting) {
+        return new DistributedDecisionTreeConfig<>(presorting, maxBins, compressor, siblingSubtraction);
+    }
+
+    /**
+     * Returns a copy of this configuration with histogram mode enabled. In histogram mode values of every column are
+     * bucketed into at most {@code maxBins} bins and partitions calculate fixed-size per-bin statistics, so per-node
+     * cost and size of data transferred during reduce depend on number of bins instead of number of rows. Split
+     * thresholds are chosen among bin bounds.
+     *
+     * @param maxBins Max number of bins ({@code 0} to disable histogram mode).
+     * @return Changed copy of this configuration.
+     */
+    public DistributedDecisionTreeConfig<T> withHistogram(int maxBins) {
+        return new DistributedDecisionTreeConfig<>(presorting, maxBins, compressor, siblingSubtraction);
+    }
+
+    /**
+     * Returns a copy of this configuration with the specified step function compressor. Step functions calculated on
+     * partitions are compressed before reduce, so size of data transferred during reduce and cost of merge are bounded
+     * by the compressor instead of number of distinct values of a column.
+     *
+     * @param compressor Step function compressor ({@code null} to disable compression).
+     * @return Changed copy of this configuration.
+     */
+    public DistributedDecisionTreeConfig<T> withCompressor(StepFunctionCompressor<T> compressor) {
+        return new DistributedDecisionTreeConfig<>(presorting, maxBins, compressor, siblingSubtraction);
+    }
+
+    /**
+     * Returns a copy of this configuration with the specified sibling subtraction flag. If {@code true} only the
+     * smaller child of every split node is scanned, impurity measure functions of its sibling are calculated as
+     * functions of the parent minus functions of the scanned child, so functions of the parent are kept for one level.
+     * Sibling subtraction is not applied if step functions are compressed, because compressed functions of a child
+     * don't share steps with compressed functions of the parent.
+     *
+     * @param siblingSubtraction Sibling subtraction flag.
+     * @return Changed copy of this configuration.
+     */
+    public DistributedDecisionTreeConfig<T> withSiblingSubtraction(boolean siblingSubtraction) {
+        return new DistributedDecisionTreeConfig<>(presorting, maxBins, compressor, siblingSubtraction);
+    }
+
+    /** */
+    public boolean isPresorting() {
+        return presorting;
+    }
+
+    /** */
+    public int getMaxBins() {
+        return maxBins;
+    }
+
+    /** */
+    public StepFunctionCompressor<T> getCompressor() {
+        return compressor;
+    }
+
+    /** */
+    public boolean isSiblingSubtraction() {
+        return siblingSubtraction;
+    }
+}
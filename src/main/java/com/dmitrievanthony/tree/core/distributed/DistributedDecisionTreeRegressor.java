@@ -22,14 +22,17 @@ import com.dmitrievanthony.tree.core.distributed.criteria.MSEImpurityMeasure;
 import com.dmitrievanthony.tree.core.distributed.criteria.MSEImpurityMeasureCalculator;
 import com.dmitrievanthony.tree.core.distributed.criteria.ImpurityMeasureCalculator;
 import com.dmitrievanthony.tree.core.distributed.dataset.Dataset;
-import java.util.Arrays;
-import java.util.function.Predicate;
+import com.dmitrievanthony.tree.core.distributed.dataset.Partition;
+import java.nio.DoubleBuffer;
 
 /**
  * Decision tree regressor based on distributed decision tree trainer that allows to fit trees using row-partitioned
  * dataset.
  */
 public class DistributedDecisionTreeRegressor extends DistributedDecisionTree<MSEImpurityMeasure> {
+    /** */
+    private static final long serialVersionUID = -430829520585660326L;
+
     /**
      * Constructs a new decision tree regressor.
      *
@@ -40,27 +43,66 @@ public class DistributedDecisionTreeRegressor extends DistributedDecisionTree<MS
         super(maxDeep, minImpurityDecrease);
     }
 
+    /**
+     * Constructs a new decision tree regressor.
+     *
+     * @param maxDeep Max tree deep.
+     * @param minImpurityDecrease Min impurity decrease.
+     * @param levelWise Level-wise growth flag.
+     */
+    public DistributedDecisionTreeRegressor(int maxDeep, double minImpurityDecrease, boolean levelWise) {
+        super(maxDeep, minImpurityDecrease, levelWise);
+    }
+
+    /**
+     * Constructs a new decision tree regressor.
+     *
+     * @param maxDeep Max tree deep.
+     * @param minImpurityDecrease Min impurity decrease.
+     * @param levelWise Level-wise growth flag.
+     * @param cfg Configuration of optional techniques (presorting, histogram mode, compression, sibling subtraction).
+     */
+    public DistributedDecisionTreeRegressor(int maxDeep, double minImpurityDecrease, boolean levelWise,
+        DistributedDecisionTreeConfig<MSEImpurityMeasure> cfg) {
+        super(maxDeep, minImpurityDecrease, levelWise, cfg);
+    }
+
     /** {@inheritDoc} */
-    @Override LeafNode createLeafNode(Dataset dataset, Predicate<double[]> pred) {
-        double[] aa = dataset.compute(part -> {
-            double mean = 0;
-            int cnt = 0;
-            for (int i = 0; i < part.getLabels().length; i++) {
-                if (pred.test(part.getFeatures()[i])) {
-                    mean += part.getLabels()[i];
-                    cnt++;
+    @Override LeafNode[] createLeafNodes(Dataset dataset, NodeIndex idx,
+        ImpurityMeasureCalculator<MSEImpurityMeasure> impurityCalc) {
+        double[][] aa = dataset.compute(part -> {
+            double[] sum = new double[idx.size()];
+            int[] cnt = new int[idx.size()];
+
+            int[] nodeIds = idx.update(part);
+
+            int off = 0;
+            for (Partition chunk : part.getChunks()) {
+                DoubleBuffer labels = chunk.getLabels();
+
+                for (int i = 0; i < chunk.getRowsCnt(); i++) {
+                    int node = idx.position(nodeIds[off + i]);
+                    if (node >= 0) {
+                        sum[node] += labels.get(i);
+                        cnt[node]++;
+                    }
                 }
-            }
 
-            if (cnt != 0) {
-                mean = mean / cnt;
-                return new double[]{mean, cnt};
+                off += chunk.getRowsCnt();
             }
 
-            return null;
+            double[][] res = new double[idx.size()][];
+            for (int node = 0; node < res.length; node++)
+                res[node] = cnt[node] != 0 ? new double[]{sum[node] / cnt[node], cnt[node]} : null;
+
+            return res;
         }, this::reduce);
 
-        return aa != null ? new LeafNode(aa[0]) : null;
+        LeafNode[] res = new LeafNode[idx.size()];
+        for (int node = 0; node < res.length; node++)
+            res[node] = aa[node] != null ? new LeafNode(aa[node][0]) : null;
+
+        return res;
     }
 
     /** {@inheritDoc} */
@@ -68,6 +110,19 @@ public class DistributedDecisionTreeRegressor extends DistributedDecisionTree<MS
         return new MSEImpurityMeasureCalculator();
     }
 
+    private double[][] reduce(double[][] a, double[][] b) {
+        if (a == null)
+            return b;
+        else if (b == null)
+            return a;
+        else {
+            double[][] res = new double[a.length][];
+            for (int node = 0; node < res.length; node++)
+                res[node] = reduce(a[node], b[node]);
+            return res;
+        }
+    }
+
     private double[] reduce(double[] a, double[] b) {
         if (a == null)
             return b;
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed;
+
+import com.dmitrievanthony.tree.core.distributed.dataset.Partition;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Store of identifiers of decision tree nodes rows of partitions belong to. Identifiers are kept per training (by
+ * identifier of the training) and per partition in the process the partition lives in, so partitions aren't changed
+ * and several trainings can use the same dataset concurrently. Identifiers have to be released once the training is
+ * finished.
+ */
+class NodeIdStore {
+    /** Identifiers of nodes every row belongs to by partition by training identifier. */
+    private static final Map<UUID, Map<Partition, int[]>> nodeIds = new ConcurrentHashMap<>();
+
+    /**
+     * Returns identifiers of nodes rows of the given partition belong to.
+     *
+     * @param fitId Training identifier.
+     * @param part Partition.
+     * @return Identifiers of nodes every row belongs to ({@code null} if they aren't initialized).
+     */
+    static int[] get(UUID fitId, Partition part) {
+        Map<Partition, int[]> fitNodeIds = nodeIds.get(fitId);
+
+        return fitNodeIds == null ? null : fitNodeIds.get(part);
+    }
+
+    /**
+     * Puts identifiers of nodes rows of the given partition belong to.
+     *
+     * @param fitId Training identifier.
+     * @param part Partition.
+     * @param ids Identifiers of nodes every row belongs to.
+     */
+    static void put(UUID fitId, Partition part, int[] ids) {
+        nodeIds.compute(fitId, (id, fitNodeIds) -> {
+            Map<Partition, int[]> res = fitNodeIds == null ? new ConcurrentHashMap<>() : fitNodeIds;
+            res.put(part, ids);
+
+            return res;
+        });
+    }
+
+    /**
+     * Releases identifiers of nodes rows of the given partition belong to.
+     *
+     * @param fitId Training identifier.
+     * @param part Partition.
+     * @return {@code true} if identifiers were kept for the partition.
+     */
+    static boolean release(UUID fitId, Partition part) {
+        boolean[] released = new boolean[1];
+
+        nodeIds.computeIfPresent(fitId, (id, fitNodeIds) -> {
+            released[0] = fitNodeIds.remove(part) != null;
+
+            return fitNodeIds.isEmpty() ? null : fitNodeIds;
+        });
+
+        return released[0];
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed;
+
+import com.dmitrievanthony.tree.core.distributed.dataset.Partition;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Index that maps rows of a partition to the decision tree nodes processed during a single pass over the dataset.
+ * Identifiers of the nodes rows of every partition belong to are kept by the training ({@link NodeIdStore}). The
+ * index brings them up to date by applying splits made since the previous pass and maps node identifiers into
+ * positions of the nodes processed during the current pass.
+ */
+class NodeIndex implements Serializable {
+    /** */
+    private static final long serialVersionUID = -4503706389748723555L;
+
+    /** Identifier of the training node identifiers belong to. */
+    private final UUID fitId;
+
+    /** Flag that shows that node identifiers have to be reset (all rows belong to the root node). */
+    private final boolean reset;
+
+    /** Split column by identifier of the split node ({@code -1} if node wasn't split since the previous pass). */
+    private final int[] splitCol;
+
+    /** Split threshold by identifier of the split node. */
+    private final double[] splitThreshold;
+
+    /** Identifier of "then" child by identifier of the split node. */
+    private final int[] thenNodeId;
+
+    /** Identifier of "else" child by identifier of the split node. */
+    private final int[] elseNodeId;
+
+    /** Position of the node in the list of processed nodes by node identifier ({@code -1} if not processed). */
+    private final int[] nodePos;
+
+    /** Number of processed nodes. */
+    private final int size;
+
+    /** Number of registered splits. */
+    private int splitsCnt;
+
+    /**
+     * Constructs a new instance of node index.
+     *
+     * @param fitId Identifier of the training node identifiers belong to.
+     * @param reset Flag that shows that node identifiers have to be reset (all rows belong to the root node).
+     * @param nodeCnt Number of node identifiers allocated so far.
+     * @param nodeIds Identifiers of the nodes processed during the pass.
+     */
+    NodeIndex(UUID fitId, boolean reset, int nodeCnt, int[] nodeIds) {
+        this.fitId = fitId;
+        this.reset = reset;
+        this.splitCol = new int[nodeCnt];
+        this.splitThreshold = new double[nodeCnt];
+        this.thenNodeId = new int[nodeCnt];
+        this.elseNodeId = new int[nodeCnt];
+        this.nodePos = new int[nodeCnt];
+        this.size = nodeIds.length;
+
+        Arrays.fill(splitCol, -1);
+        Arrays.fill(nodePos, -1);
+
+        for (int i = 0; i < nodeIds.length; i++)
+            nodePos[nodeIds[i]] = i;
+    }
+
+    /**
+     * Registers a split made since the previous pass.
+     *
+     * @param nodeId Identifier of the split node.
+     * @param col Split column.
+     * @param threshold Split threshold.
+     * @param thenNodeId Identifier of "then" child.
+     * @param elseNodeId Identifier of "else" child.
+     */
+    void addSplit(int nodeId, int col, double threshold, int thenNodeId, int elseNodeId) {
+        this.splitCol[nodeId] = col;
+        this.splitThreshold[nodeId] = threshold;
+        this.thenNodeId[nodeId] = thenNodeId;
+        this.elseNodeId[nodeId] = elseNodeId;
+
+        splitsCnt++;
+    }
+
+    /**
+     * Brings node identifiers of the given partition up to date. Applying the same index twice has no effect. Data of
+     * the partition is read chunk by chunk and only if there are splits to apply.
+     *
+     * @param part Partition.
+     * @return Identifiers of decision tree nodes every row belongs to.
+     */
+    int[] update(Partition part) {
+        if (reset) {
+            int[] nodeIds = new int[part.getRowsCnt()];
+            NodeIdStore.put(fitId, part, nodeIds);
+            return nodeIds;
+        }
+
+        int[] nodeIds = NodeIdStore.get(fitId, part);
+
+        if (nodeIds == null)
+            throw new IllegalStateException("Node identifiers of partition are not initialized");
+
+        if (splitsCnt == 0)
+            return nodeIds;
+
+        int off = 0;
+
+        for (Partition chunk : part.getChunks()) {
+            for (int i = 0; i < chunk.getRowsCnt(); i++) {
+                int nodeId = nodeIds[off + i];
+                int col = splitCol[nodeId];
+
+                if (col >= 0) {
+                    double val = chunk.getColumn(col).get(i);
+                    nodeIds[off + i] = val > splitThreshold[nodeId] ? thenNodeId[nodeId] : elseNodeId[nodeId];
+                }
+            }
+
+            off += chunk.getRowsCnt();
+        }
+
+        return nodeIds;
+    }
+
+    /**
+     * Returns position of the node in the list of nodes processed during the pass.
+     *
+     * @param nodeId Node identifier.
+     * @return Position of the node or {@code -1} if the node isn't processed.
+     */
+    int position(int nodeId) {
+        return nodePos[nodeId];
+    }
+
+    /** */
+    int size() {
+        return size;
+    }
+}
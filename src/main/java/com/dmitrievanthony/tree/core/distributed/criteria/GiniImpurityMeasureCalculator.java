@@ -17,7 +17,7 @@
 
 package com.dmitrievanthony.tree.core.distributed.criteria;
 
-import com.dmitrievanthony.tree.utils.Utils;
+import com.dmitrievanthony.tree.utils.LabelEncoder;
 import java.util.Arrays;
 import java.util.Map;
 
@@ -25,8 +25,11 @@ import java.util.Map;
  * Gini impurity measure calculator.
  */
 public class GiniImpurityMeasureCalculator implements ImpurityMeasureCalculator<GiniImpurityMeasure> {
+    /** */
+    private static final long serialVersionUID = -223968150939215690L;
+
     /** Label encoder which defines integer value for every label class.  */
-    private final Map<Double, Integer> lbEncoder;
+    private final LabelEncoder lbEncoder;
 
     /**
      * Constructs a new instance of Gini impurity measure calculator.
@@ -34,61 +37,102 @@ public class GiniImpurityMeasureCalculator implements ImpurityMeasureCalculator<
      * @param lbEncoder Label encoder which defines integer value for every label class.
      */
     public GiniImpurityMeasureCalculator(Map<Double, Integer> lbEncoder) {
+        this(LabelEncoder.of(lbEncoder));
+    }
+
+    /**
+     * Constructs a new instance of Gini impurity measure calculator.
+     *
+     * @param lbEncoder Label encoder which defines integer value for every label class.
+     */
+    public GiniImpurityMeasureCalculator(LabelEncoder lbEncoder) {
         this.lbEncoder = lbEncoder;
     }
 
     /** {@inheritDoc} */
-    @SuppressWarnings("unchecked")
-    @Override public StepFunction<GiniImpurityMeasure>[] calculate(double[][] data, double[] labels) {
-        StepFunction<GiniImpurityMeasure>[] res = new StepFunction[data[0].length];
+    @Override public StepFunction<GiniImpurityMeasure> calculate(double[] data, double[] labels) {
+        double[] x = new double[data.length + 1];
+        GiniImpurityMeasure[] y = new GiniImpurityMeasure[data.length + 1];
 
-        for (int col = 0; col < res.length; col++) {
-            Utils.quickSort(data, labels, col);
+        int xPtr = 0, yPtr = 0;
 
-            double[] x = new double[data.length + 1];
-            GiniImpurityMeasure[] y = new GiniImpurityMeasure[data.length + 1];
+        x[xPtr++] = Double.NEGATIVE_INFINITY;
 
-            int xPtr = 0, yPtr = 0;
+        int[] codes = new int[labels.length];
+        long[] left = new long[lbEncoder.size()];
+        long[] right = new long[lbEncoder.size()];
 
-            x[xPtr++] = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < labels.length; i++) {
+            codes[i] = lbEncoder.encode(labels[i]);
+            right[codes[i]]++;
+        }
 
-            for (int leftSize = 0; leftSize <= data.length; leftSize++) {
-                if (leftSize > 0 && leftSize < data.length && data[leftSize][col] == data[leftSize - 1][col])
-                    continue;
+        for (int leftSize = 0; leftSize <= data.length; leftSize++) {
+            if (leftSize > 0) {
+                left[codes[leftSize - 1]]++;
+                right[codes[leftSize - 1]]--;
+            }
 
-                long[] left = new long[lbEncoder.size()];
-                long[] right = new long[lbEncoder.size()];
+            if (leftSize > 0 && leftSize < data.length && data[leftSize] == data[leftSize - 1])
+                continue;
 
-                for (int j = 0; j < leftSize; j++)
-                    left[getLabelCode(labels[j])]++;
+            if (leftSize < data.length)
+                x[xPtr++] = data[leftSize];
 
-                for (int j = leftSize; j < labels.length; j++)
-                    right[getLabelCode(labels[j])]++;
+            y[yPtr++] = new GiniImpurityMeasure(left.clone(), right.clone());
+        }
 
-                if (leftSize < data.length)
-                    x[xPtr++] = data[leftSize][col];
+        return new StepFunction<>(Arrays.copyOf(x, xPtr), Arrays.copyOf(y, yPtr));
+    }
 
-                y[yPtr++] = new GiniImpurityMeasure(left, right);
-            }
+    /** {@inheritDoc} */
+    @Override public int getStatisticsSize() {
+        return lbEncoder.size();
+    }
 
-            res[col] = new StepFunction<>(Arrays.copyOf(x, xPtr), Arrays.copyOf(y, yPtr));
-        }
+    /** {@inheritDoc} */
+    @Override public void addStatistics(double[] stats, int off, double label) {
+        stats[off + lbEncoder.encode(label)]++;
+    }
+
+    /** {@inheritDoc} */
+    @Override public double getCount(double[] stats, int off) {
+        double cnt = 0;
 
-        return res;
+        for (int i = 0; i < lbEncoder.size(); i++)
+            cnt += stats[off + i];
+
+        return cnt;
     }
 
-    /**
-     * Returns label code.
-     *
-     * @param lb Label.
-     * @return Label code.
-     */
-    private int getLabelCode(double lb) {
-        Integer code = lbEncoder.get(lb);
+    /** {@inheritDoc} */
+    @Override public double impurity(double[] left, int leftOff, double[] right, int rightOff) {
+        double leftCnt = 0;
+        double rightCnt = 0;
+
+        double leftImpurity = 0;
+        double rightImpurity = 0;
+
+        for (int i = 0; i < lbEncoder.size(); i++) {
+            double l = left[leftOff + i];
+            double r = right[rightOff + i];
+
+            leftImpurity += l * l;
+            leftCnt += l;
 
-        if (code == null)
-            throw new IllegalArgumentException("Can't find code for label " + lb);
+            rightImpurity += r * r;
+            rightCnt += r;
+        }
+
+        double totalImpurity = 0;
+        totalImpurity += leftCnt > 0 ? leftImpurity / leftCnt : 0;
+        totalImpurity += rightCnt > 0 ? rightImpurity / rightCnt : 0;
+
+        return -totalImpurity;
+    }
 
-        return code;
+    /** */
+    public LabelEncoder getLabelEncoder() {
+        return lbEncoder;
     }
 }
@@ -17,19 +17,127 @@
 
 package com.dmitrievanthony.tree.core.distributed.criteria;
 
+import com.dmitrievanthony.tree.utils.sort.DoubleSort;
+import java.io.Serializable;
+
 /**
  * Base interface for impurity measure calculators that calculates all impurity measures required to find a best split.
  *
  * @param <T> Type of impurity measure.
  */
-public interface ImpurityMeasureCalculator<T extends ImpurityMeasure<T>>{
+public interface ImpurityMeasureCalculator<T extends ImpurityMeasure<T>> extends Serializable {
     /**
      * Calculates all impurity measures required required to find a best split and returns them as an array of
-     * {@link StepFunction} (for every column).
+     * {@link StepFunction} (for every column). The given features and labels are not changed.
      *
      * @param features Features.
      * @param labels Labels.
      * @return Impurity measures as an array of {@link StepFunction} (for every column).
      */
-    public StepFunction<T>[] calculate(double[][] features, double[] labels);
+    default public StepFunction<T>[] calculate(double[][] features, double[] labels) {
+        @SuppressWarnings("unchecked")
+        StepFunction<T>[] res = (StepFunction<T>[])new StepFunction<?>[features[0].length];
+
+        double[] x = new double[features.length];
+        double[] y = new double[labels.length];
+
+        for (int col = 0; col < res.length; col++) {
+            for (int i = 0; i < features.length; i++)
+                x[i] = features[i][col];
+
+            System.arraycopy(labels, 0, y, 0, labels.length);
+
+            DoubleSort.sort(x, y);
+
+            res[col] = calculate(x, y);
+        }
+
+        return res;
+    }
+
+    /**
+     * Calculates all impurity measures required required to find a best split on a single column and returns them as
+     * {@link StepFunction}. Implementations must not keep references to the given arrays, they might be reused.
+     *
+     * @param x Column values sorted ascendingly.
+     * @param labels Labels sorted the same way as column values.
+     * @return Impurity measures as {@link StepFunction}.
+     */
+    public StepFunction<T> calculate(double[] x, double[] labels);
+
+    /**
+     * Returns number of values in statistics of a set of rows which is enough to construct impurity measure.
+     *
+     * @return Number of values in statistics.
+     */
+    public int getStatisticsSize();
+
+    /**
+     * Adds a row with the given label into statistics kept in the specified buffer.
+     *
+     * @param stats Statistics buffer.
+     * @param off Offset of statistics in the buffer.
+     * @param label Label.
+     */
+    public void addStatistics(double[] stats, int off, double label);
+
+    /**
+     * Returns number of rows which statistics are kept in the specified buffer.
+     *
+     * @param stats Statistics buffer.
+     * @param off Offset of statistics in the buffer.
+     * @return Number of rows.
+     */
+    public double getCount(double[] stats, int off);
+
+    /**
+     * Calculates impurity of a split using statistics of the left and right parts. The result is the same as
+     * {@link ImpurityMeasure#impurity()} of the corresponding measure.
+     *
+     * @param left Statistics buffer of the left part.
+     * @param leftOff Offset of statistics of the left part in the buffer.
+     * @param right Statistics buffer of the right part.
+     * @param rightOff Offset of statistics of the right part in the buffer.
+     * @return Impurity.
+     */
+    public double impurity(double[] left, int leftOff, double[] right, int rightOff);
+
+    /**
+     * Calculates statistics required to find a best split on a single column and returns them as
+     * {@link PrimitiveStepFunction}. Every distinct column value becomes a step. Implementations must not keep
+     * references to the given arrays, they might be reused.
+     *
+     * @param x Column values sorted ascendingly.
+     * @param labels Labels sorted the same way as column values.
+     * @return Statistics as {@link PrimitiveStepFunction}.
+     */
+    default public PrimitiveStepFunction calculatePrimitive(double[] x, double[] labels) {
+        int statsSize = getStatisticsSize();
+
+        int distinctCnt = 0;
+        for (int i = 0; i < x.length; i++)
+            if (i == 0 || x[i] != x[i - 1])
+                distinctCnt++;
+
+        double[] resX = new double[distinctCnt + 1];
+        double[] left = new double[resX.length * statsSize];
+        double[] total = new double[statsSize];
+
+        resX[0] = Double.NEGATIVE_INFINITY;
+
+        int step = 0;
+        for (int i = 0; i < x.length; i++) {
+            if (i == 0 || x[i] != x[i - 1]) {
+                step++;
+                resX[step] = x[i];
+                System.arraycopy(left, (step - 1) * statsSize, left, step * statsSize, statsSize);
+            }
+
+            addStatistics(left, step * statsSize, labels[i]);
+        }
+
+        System.arraycopy(left, step * statsSize, total, 0, statsSize);
+
+        return new PrimitiveStepFunction(resX, left, total);
+    }
 }
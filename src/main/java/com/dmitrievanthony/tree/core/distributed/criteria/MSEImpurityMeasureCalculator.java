@@ -17,50 +17,92 @@
 
 package com.dmitrievanthony.tree.core.distributed.criteria;
 
-import com.dmitrievanthony.tree.utils.Utils;
+import java.util.Arrays;
 
 /**
  * Meas squared error (variance) impurity measure calculator.
  */
 public class MSEImpurityMeasureCalculator implements ImpurityMeasureCalculator<MSEImpurityMeasure> {
+    /** */
+    private static final long serialVersionUID = -508575175100393512L;
+
     /** {@inheritDoc} */
-    @SuppressWarnings("unchecked")
-    @Override public StepFunction<MSEImpurityMeasure>[] calculate(double[][] data, double[] labels) {
-        StepFunction<MSEImpurityMeasure>[] res = new StepFunction[data[0].length];
+    @Override public StepFunction<MSEImpurityMeasure> calculate(double[] data, double[] labels) {
+        double[] x = new double[data.length + 1];
+        MSEImpurityMeasure[] y = new MSEImpurityMeasure[data.length + 1];
 
-        for (int col = 0; col < res.length; col++) {
-            Utils.quickSort(data, labels, col);
+        int xPtr = 0, yPtr = 0;
 
-            double[] x = new double[data.length + 1];
-            MSEImpurityMeasure[] y = new MSEImpurityMeasure[data.length + 1];
+        x[xPtr++] = Double.NEGATIVE_INFINITY;
 
-            x[0] = Double.NEGATIVE_INFINITY;
+        double leftY = 0;
+        double leftY2 = 0;
+        double rightY = 0;
+        double rightY2 = 0;
 
-            for (int leftSize = 0; leftSize <= data.length; leftSize++) {
-                double leftY = 0;
-                double leftY2 = 0;
-                double rightY = 0;
-                double rightY2 = 0;
+        for (double lb : labels) {
+            rightY += lb;
+            rightY2 += lb * lb;
+        }
 
-                for (int i = 0; i < leftSize; i++) {
-                    leftY += labels[i];
-                    leftY2 += Math.pow(labels[i], 2);
-                }
+        for (int leftSize = 0; leftSize <= data.length; leftSize++) {
+            if (leftSize > 0) {
+                double lb = labels[leftSize - 1];
+                leftY += lb;
+                leftY2 += lb * lb;
+                rightY -= lb;
+                rightY2 -= lb * lb;
+            }
 
-                for (int i = leftSize; i < labels.length; i++) {
-                    rightY += labels[i];
-                    rightY2 += Math.pow(labels[i], 2);
-                }
+            if (leftSize > 0 && leftSize < data.length && data[leftSize] == data[leftSize - 1])
+                continue;
 
-                if (leftSize < data.length)
-                    x[leftSize + 1] = data[leftSize][col];
+            if (leftSize < data.length)
+                x[xPtr++] = data[leftSize];
 
-                y[leftSize] = new MSEImpurityMeasure(leftY, leftY2, leftSize, rightY, rightY2, data.length - leftSize);
-            }
+            y[yPtr++] = new MSEImpurityMeasure(leftY, leftY2, leftSize, rightY, rightY2, data.length - leftSize);
+        }
+
+        return new StepFunction<>(Arrays.copyOf(x, xPtr), Arrays.copyOf(y, yPtr));
+    }
+
+    /** {@inheritDoc} */
+    @Override public int getStatisticsSize() {
+        return 3;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void addStatistics(double[] stats, int off, double label) {
+        stats[off] += label;
+        stats[off + 1] += label * label;
+        stats[off + 2]++;
+    }
+
+    /** {@inheritDoc} */
+    @Override public double getCount(double[] stats, int off) {
+        return stats[off + 2];
+    }
+
+    /** {@inheritDoc} */
+    @Override public double impurity(double[] left, int leftOff, double[] right, int rightOff) {
+        return impurity(left[leftOff], left[leftOff + 1], left[leftOff + 2]) +
+            impurity(right[rightOff], right[rightOff + 1], right[rightOff + 2]);
+    }
 
-            res[col] = new StepFunction<>(x, y);
+    /**
+     * Calculates impurity of a single part.
+     *
+     * @param y Sum of all elements in the part.
+     * @param y2 Sum of all squared elements in the part.
+     * @param cnt Number of elements in the part.
+     * @return Impurity.
+     */
+    private static double impurity(double y, double y2, double cnt) {
+        if (cnt > 0) {
+            double mean = y / cnt;
+            return y2 - 2.0 * mean * y + mean * mean * cnt;
         }
 
-        return res;
+        return 0;
     }
 }
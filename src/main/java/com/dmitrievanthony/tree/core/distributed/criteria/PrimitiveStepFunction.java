@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed.criteria;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Step function which keeps statistics of the left part of every step in a flat primitive buffer instead of keeping an
+ * impurity measure object per step. Impurity of a step is calculated by {@link ImpurityMeasureCalculator} from
+ * statistics of the left part and statistics of the right part (total minus left), so merging and scanning of the
+ * function don't allocate objects per step.
+ */
+public class PrimitiveStepFunction implements Serializable {
+    /** */
+    private static final long serialVersionUID = -4202504981021769433L;
+
+    /** Argument of every steps start. Should be ascendingly sorted all the time. */
+    private final double[] x;
+
+    /** Statistics of the left part (rows with values not greater than argument) of every step. */
+    private final double[] left;
+
+    /** Statistics of all rows. */
+    private final double[] total;
+
+    /**
+     * Constructs a new instance of primitive step function.
+     *
+     * @param x Argument of every steps start.
+     * @param left Statistics of the left part of every step ({@code x.length * total.length} values).
+     * @param total Statistics of all rows.
+     */
+    public PrimitiveStepFunction(double[] x, double[] left, double[] total) {
+        if (x.length * total.length != left.length)
+            throw new IllegalArgumentException("Statistics array has to contain " + total.length + " values per step");
+
+        this.x = x;
+        this.left = left;
+        this.total = total;
+    }
+
+    /**
+     * Adds the given step function to this.
+     *
+     * @param b Another step function.
+     * @return Sum of this and the given function.
+     */
+    public PrimitiveStepFunction add(PrimitiveStepFunction b) {
+        int statsSize = total.length;
+
+        if (b.total.length != statsSize)
+            throw new IllegalArgumentException("Added function has to have " + statsSize + " values per step");
+
+        double[] resX = new double[x.length + b.x.length];
+        double[] resLeft = new double[resX.length * statsSize];
+        double[] resTotal = new double[statsSize];
+
+        for (int i = 0; i < statsSize; i++)
+            resTotal[i] = total[i] + b.total[i];
+
+        int size = 0, leftPtr = 0, rightPtr = 0;
+
+        while (leftPtr < x.length || rightPtr < b.x.length) {
+            double pnt = Math.min(
+                leftPtr < x.length ? x[leftPtr] : Double.POSITIVE_INFINITY,
+                rightPtr < b.x.length ? b.x[rightPtr] : Double.POSITIVE_INFINITY
+            );
+
+            if (leftPtr < x.length && x[leftPtr] == pnt)
+                leftPtr++;
+
+            if (rightPtr < b.x.length && b.x[rightPtr] == pnt)
+                rightPtr++;
+
+            resX[size] = pnt;
+
+            int off = size * statsSize;
+
+            if (leftPtr > 0)
+                System.arraycopy(left, (leftPtr - 1) * statsSize, resLeft, off, statsSize);
+
+            if (rightPtr > 0)
+                for (int i = 0; i < statsSize; i++)
+                    resLeft[off + i] += b.left[(rightPtr - 1) * statsSize + i];
+
+            size++;
+        }
+
+        return new PrimitiveStepFunction(
+            Arrays.copyOf(resX, size),
+            Arrays.copyOf(resLeft, size * statsSize),
+            resTotal
+        );
+    }
+
+    /**
+     * Subtracts the given step function from this. The given function has to be calculated on a subset of rows this
+     * function is calculated on (for example, on a child node), so arguments of its steps are arguments of steps of
+     * this function. Steps that don't contain rows after subtraction are skipped.
+     *
+     * @param b Step function calculated on a subset of rows.
+     * @param impurityCalc Impurity measure calculator used to count rows.
+     * @return Difference of this and the given function.
+     */
+    public PrimitiveStepFunction subtract(PrimitiveStepFunction b, ImpurityMeasureCalculator<?> impurityCalc) {
+        int statsSize = total.length;
+
+        if (b.total.length != statsSize)
+            throw new IllegalArgumentException("Subtracted function has to have " + statsSize + " values per step");
+
+        double[] resX = new double[x.length];
+        double[] resLeft = new double[resX.length * statsSize];
+        double[] resTotal = new double[statsSize];
+
+        for (int i = 0; i < statsSize; i++)
+            resTotal[i] = total[i] - b.total[i];
+
+        int size = 0, rightPtr = 0;
+        double prevCnt = 0;
+
+        for (int step = 0; step < x.length; step++) {
+            while (rightPtr < b.x.length && b.x[rightPtr] <= x[step])
+                rightPtr++;
+
+            int off = size * statsSize;
+
+            System.arraycopy(left, step * statsSize, resLeft, off, statsSize);
+
+            if (rightPtr > 0)
+                for (int i = 0; i < statsSize; i++)
+                    resLeft[off + i] -= b.left[(rightPtr - 1) * statsSize + i];
+
+            double cnt = impurityCalc.getCount(resLeft, off);
+
+            if (size == 0 || cnt != prevCnt) {
+                resX[size++] = x[step];
+                prevCnt = cnt;
+            }
+        }
+
+        return new PrimitiveStepFunction(
+            Arrays.copyOf(resX, size),
+            Arrays.copyOf(resLeft, size * statsSize),
+            resTotal
+        );
+    }
+
+    /**
+     * Calculates impurity of the given step.
+     *
+     * @param step Step.
+     * @param impurityCalc Impurity measure calculator.
+     * @param buf Buffer of {@link #getStatisticsSize()} values used to keep statistics of the right part.
+     * @return Impurity.
+     */
+    public double impurity(int step, ImpurityMeasureCalculator<?> impurityCalc, double[] buf) {
+        int off = step * total.length;
+
+        for (int i = 0; i < total.length; i++)
+            buf[i] = total[i] - left[off + i];
+
+        return impurityCalc.impurity(left, off, buf, 0);
+    }
+
+    /** */
+    public int size() {
+        return x.length;
+    }
+
+    /** */
+    public int getStatisticsSize() {
+        return total.length;
+    }
+
+    /** */
+    public double[] getX() {
+        return x;
+    }
+
+    /** */
+    public double[] getLeft() {
+        return left;
+    }
+
+    /** */
+    public double[] getTotal() {
+        return total;
+    }
+}
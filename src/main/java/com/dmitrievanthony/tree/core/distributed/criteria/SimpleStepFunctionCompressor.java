@@ -17,70 +17,149 @@
 
 package com.dmitrievanthony.tree.core.distributed.criteria;
 
-import com.dmitrievanthony.tree.utils.Utils;
-import java.lang.reflect.Array;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.function.IntToDoubleFunction;
 
 /**
- *
+ * Step function compressor which merges adjacent steps. A step is merged into the previous kept step if impurity of
+ * these steps differs by no more than the specified max impurity error. After that, if the function still has more
+ * than the specified max number of points, evenly spaced steps are kept. The first step (empty left part) and the last
+ * step (empty right part) are always kept.
  *
  * @param <T> Type of step function values.
  */
 public class SimpleStepFunctionCompressor<T extends ImpurityMeasure<T>> implements StepFunctionCompressor<T> {
+    /** */
+    private static final long serialVersionUID = 859569616221357541L;
+
+    /** Max number of points in compressed function. */
+    private final int maxPoints;
+
+    /** Max difference between impurity of a merged step and impurity of the step it's merged into. */
+    private final double maxImpurityErr;
+
+    /**
+     * Constructs a new instance of step function compressor which keeps at most the specified number of points.
+     *
+     * @param maxPoints Max number of points in compressed function.
+     */
+    public SimpleStepFunctionCompressor(int maxPoints) {
+        this(maxPoints, 0);
+    }
+
+    /**
+     * Constructs a new instance of step function compressor.
+     *
+     * @param maxPoints Max number of points in compressed function.
+     * @param maxImpurityErr Max difference between impurity of a merged step and impurity of the step it's merged into.
+     */
+    public SimpleStepFunctionCompressor(int maxPoints, double maxImpurityErr) {
+        if (maxPoints < 2)
+            throw new IllegalArgumentException("Max number of points has to be greater than 1");
+
+        if (maxImpurityErr < 0)
+            throw new IllegalArgumentException("Max impurity error has to be non-negative");
+
+        this.maxPoints = maxPoints;
+        this.maxImpurityErr = maxImpurityErr;
+    }
+
     /** {@inheritDoc} */
     @Override public StepFunction<T> compress(StepFunction<T> function) {
-        double[] arguments = function.getX();
-        T[] values = function.getY();
+        double[] x = function.getX();
+        T[] y = function.getY();
 
-        List<StepFunctionPoint> points = new ArrayList<>();
-        for (int i = 0; i < arguments.length; i++)
-            points.add(new StepFunctionPoint(arguments[i], values[i]));
+        int[] points = selectPoints(x.length, i -> y[i].impurity());
 
-        points = compress(points);
+        if (points.length == x.length)
+            return function;
 
-        double[] resX = new double[points.size()];
-        T[] resY = Arrays.copyOf(values, points.size());
+        double[] resX = new double[points.length];
+        T[] resY = Arrays.copyOf(y, points.length);
 
-        for (int i = 0; i < points.size(); i++) {
-            StepFunctionPoint pnt = points.get(i);
-            resX[i] = pnt.x;
-            resY[i] = pnt.y;
+        for (int i = 0; i < points.length; i++) {
+            resX[i] = x[points[i]];
+            resY[i] = y[points[i]];
         }
 
         return new StepFunction<>(resX, resY);
     }
 
+    /** {@inheritDoc} */
+    @Override public PrimitiveStepFunction compress(PrimitiveStepFunction function,
+        ImpurityMeasureCalculator<T> impurityCalc) {
+        double[] buf = new double[function.getStatisticsSize()];
+
+        int[] points = selectPoints(function.size(), i -> function.impurity(i, impurityCalc, buf));
+
+        if (points.length == function.size())
+            return function;
+
+        int statsSize = function.getStatisticsSize();
+        double[] x = function.getX();
+        double[] left = function.getLeft();
+
+        double[] resX = new double[points.length];
+        double[] resLeft = new double[points.length * statsSize];
+
+        for (int i = 0; i < points.length; i++) {
+            resX[i] = x[points[i]];
+            System.arraycopy(left, points[i] * statsSize, resLeft, i * statsSize, statsSize);
+        }
+
+        return new PrimitiveStepFunction(resX, resLeft, function.getTotal());
+    }
+
     /**
-     * Compresses list of step function points.
+     * Selects steps to be kept in compressed function.
      *
-     * @param points Step function points.
-     * @return Compressed step function points.
+     * @param size Number of steps.
+     * @param impurity Impurity of a step by its index.
+     * @return Sorted indices of kept steps.
      */
-    private List<StepFunctionPoint> compress(List<StepFunctionPoint> points) {
-        return points;
+    private int[] selectPoints(int size, IntToDoubleFunction impurity) {
+        if (size <= 2)
+            return identity(size);
+
+        int[] points = new int[size];
+        int pointsCnt = 0;
+
+        points[pointsCnt++] = 0;
+        double keptImpurity = impurity.applyAsDouble(0);
+
+        for (int i = 1; i < size - 1; i++) {
+            double stepImpurity = impurity.applyAsDouble(i);
+
+            if (Math.abs(stepImpurity - keptImpurity) > maxImpurityErr) {
+                points[pointsCnt++] = i;
+                keptImpurity = stepImpurity;
+            }
+        }
+
+        points[pointsCnt++] = size - 1;
+
+        if (pointsCnt <= maxPoints)
+            return pointsCnt == size ? points : Arrays.copyOf(points, pointsCnt);
+
+        int[] res = new int[maxPoints];
+        for (int i = 0; i < maxPoints; i++)
+            res[i] = points[(int)((long)i * (pointsCnt - 1) / (maxPoints - 1))];
+
+        return res;
     }
 
     /**
-     * Util class that represents step function point.
+     * Returns indices of all steps.
+     *
+     * @param size Number of steps.
+     * @return Array {@code [0, 1, ..., size - 1]}.
      */
-    private class StepFunctionPoint {
-        /** Argument of the step start. */
-        private final double x;
-
-        /** Value of the step. */
-        private final T y;
-
-        /**
-         * Constructs a new instance of util class that represents step function point.
-         *
-         * @param x Argument of the step start.
-         * @param y Value of the step.
-         */
-        public StepFunctionPoint(double x, T y) {
-            this.x = x;
-            this.y = y;
-        }
+    private static int[] identity(int size) {
+        int[] res = new int[size];
+
+        for (int i = 0; i < size; i++)
+            res[i] = i;
+
+        return res;
     }
 }
@@ -17,7 +17,7 @@
 
 package com.dmitrievanthony.tree.core.distributed.criteria;
 
-import com.dmitrievanthony.tree.utils.Utils;
+import com.dmitrievanthony.tree.utils.sort.DoubleSort;
 import java.util.Arrays;
 
 /**
@@ -33,91 +33,68 @@ public class StepFunction<T extends ImpurityMeasure<T>> {
     private final T[] y;
 
     /**
-     * Constructs a new instance of step function.
+     * Constructs a new instance of step function. Arguments are sorted (together with values) unless they are already
+     * sorted.
      *
      * @param x Argument of every steps start.
      * @param y Value of every step.
      */
     public StepFunction(double[] x, T[] y) {
+        this(x, y, DoubleSort.isSorted(x));
+    }
+
+    /**
+     * Constructs a new instance of step function.
+     *
+     * @param x Argument of every steps start.
+     * @param y Value of every step.
+     * @param sorted Flag that shows that arguments are already sorted.
+     */
+    private StepFunction(double[] x, T[] y, boolean sorted) {
         if (x.length != y.length)
             throw new IllegalArgumentException("Argument and value arrays have to be the same length");
 
         this.x = x;
         this.y = y;
 
-        Utils.quickSort(x, y);
+        if (!sorted)
+            DoubleSort.sort(x, y);
     }
 
     /**
-     * Adds the given step function to this.
+     * Adds the given step function to this. Both functions are traversed in a single pass, the result is sorted by
+     * construction and isn't sorted again.
      *
      * @param b Another step function.
      * @return Sum of this and the given function.
      */
     public StepFunction<T> add(StepFunction<T> b) {
-        int resSize = 0, leftPtr = 0, rightPtr = 0;
-        double previousPnt = 0;
+        double[] resX = new double[x.length + b.x.length];
+        T[] resY = Arrays.copyOf(y, resX.length);
+
+        int size = 0, leftPtr = 0, rightPtr = 0;
 
         while (leftPtr < x.length || rightPtr < b.x.length) {
-            if (rightPtr >= b.x.length || (leftPtr < x.length && x[leftPtr] < b.x[rightPtr])) {
-                if (resSize == 0 || x[leftPtr] != previousPnt) {
-                    previousPnt = x[leftPtr];
-                    resSize++;
-                }
+            double pnt = Math.min(
+                leftPtr < x.length ? x[leftPtr] : Double.POSITIVE_INFINITY,
+                rightPtr < b.x.length ? b.x[rightPtr] : Double.POSITIVE_INFINITY
+            );
 
+            if (leftPtr < x.length && x[leftPtr] == pnt)
                 leftPtr++;
-            }
-            else {
-                if (resSize == 0 || b.x[rightPtr] != previousPnt) {
-                    previousPnt = b.x[rightPtr];
-                    resSize++;
-                }
 
+            if (rightPtr < b.x.length && b.x[rightPtr] == pnt)
                 rightPtr++;
-            }
-        }
 
-        double[] resX = new double[resSize];
-        T[] resY = Arrays.copyOf(y, resSize);
+            T leftVal = leftPtr > 0 ? y[leftPtr - 1] : null;
+            T rightVal = rightPtr > 0 ? b.y[rightPtr - 1] : null;
 
-        leftPtr = 0;
-        rightPtr = 0;
-
-        for (int i = 0; leftPtr < x.length || rightPtr < b.x.length; i++) {
-            if (rightPtr >= b.x.length || (leftPtr < x.length && x[leftPtr] < b.x[rightPtr])) {
-                boolean override = i > 0 && x[leftPtr] == resX[i - 1];
-                int target = override ? i - 1 : i;
-
-                resY[target] = override ? resY[target] : null;
-                resY[target] = i > 0 ? resY[i - 1] : null;
-                resY[target] = resY[target] == null ? y[leftPtr] : resY[target].add(y[leftPtr]);
-
-                if (leftPtr > 0)
-                    resY[target] = resY[target].subtract(y[leftPtr - 1]);
-
-                resX[target] = x[leftPtr];
-                i = target;
-                leftPtr++;
-            }
-            else {
-                boolean override = i > 0 && b.x[rightPtr] == resX[i - 1];
-                int target = override ? i - 1 : i;
-
-                resY[target] = override ? resY[target] : null;
-                resY[target] = i > 0 ? resY[i - 1] : null;
-
-                resY[target] = resY[target] == null ? b.y[rightPtr] : resY[target].add(b.y[rightPtr]);
-
-                if (rightPtr > 0)
-                    resY[target] = resY[target].subtract(b.y[rightPtr - 1]);
-
-                resX[target] = b.x[rightPtr];
-                i = target;
-                rightPtr++;
-            }
+            resX[size] = pnt;
+            resY[size] = leftVal == null ? rightVal : rightVal == null ? leftVal : leftVal.add(rightVal);
+            size++;
         }
 
-        return new StepFunction<>(resX, resY);
+        return new StepFunction<>(Arrays.copyOf(resX, size), Arrays.copyOf(resY, size), true);
     }
 
     /** */
@@ -17,6 +17,7 @@
 
 package com.dmitrievanthony.tree.core.distributed.criteria;
 
+import java.io.Serializable;
 import java.util.Arrays;
 
 /**
@@ -24,7 +25,7 @@ import java.util.Arrays;
  *
  * @param <T> Type of step function value.
  */
-public interface StepFunctionCompressor<T extends ImpurityMeasure<T>> {
+public interface StepFunctionCompressor<T extends ImpurityMeasure<T>> extends Serializable {
     /**
      * Compresses the given step function.
      *
@@ -33,6 +34,15 @@ public interface StepFunctionCompressor<T extends ImpurityMeasure<T>> {
      */
     public StepFunction<T> compress(StepFunction<T> function);
 
+    /**
+     * Compresses the given primitive step function.
+     *
+     * @param function Primitive step function.
+     * @param impurityCalc Impurity measure calculator used to calculate impurity of the function steps.
+     * @return Compressed primitive step function.
+     */
+    public PrimitiveStepFunction compress(PrimitiveStepFunction function, ImpurityMeasureCalculator<T> impurityCalc);
+
     /**
      * Compresses every step function in the given array.
      *
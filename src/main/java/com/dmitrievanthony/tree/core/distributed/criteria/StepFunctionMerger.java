@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed.criteria;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Merger which sums many {@link PrimitiveStepFunction}s in a single pass (k-way merge). Arguments and statistics of
+ * the result are accumulated in buffers kept by the merger and reused between merges, so the only allocation of a
+ * merge is the result itself. The merger is not thread-safe.
+ */
+public class StepFunctionMerger {
+    /** Buffer of arguments of the result. */
+    private double[] x = new double[0];
+
+    /** Buffer of statistics of the left part of every step of the result. */
+    private double[] left = new double[0];
+
+    /** Statistics of the left part of the current step. */
+    private double[] running = new double[0];
+
+    /** Current step of every merged function. */
+    private int[] ptrs = new int[0];
+
+    /** Binary heap of merged functions ordered by arguments of their current steps. */
+    private int[] heap = new int[0];
+
+    /** Pair of functions merged by {@link #merge(PrimitiveStepFunction, PrimitiveStepFunction)}. */
+    private final List<PrimitiveStepFunction> pair = Arrays.asList(null, null);
+
+    /**
+     * Sums two step functions (see {@link #merge(List)}).
+     *
+     * @param a First step function ({@code null} if it's empty).
+     * @param b Second step function ({@code null} if it's empty).
+     * @return Sum of the given step functions.
+     */
+    public PrimitiveStepFunction merge(PrimitiveStepFunction a, PrimitiveStepFunction b) {
+        if (a == null)
+            return b;
+        else if (b == null)
+            return a;
+
+        pair.set(0, a);
+        pair.set(1, b);
+
+        try {
+            return merge(pair);
+        }
+        finally {
+            // The merger must not keep references to the merged functions.
+            pair.set(0, null);
+            pair.set(1, null);
+        }
+    }
+
+    /**
+     * Sums the given step functions.
+     *
+     * @param functions Step functions.
+     * @return Sum of the given step functions ({@code null} if the list is empty).
+     */
+    public PrimitiveStepFunction merge(List<PrimitiveStepFunction> functions) {
+        if (functions.isEmpty())
+            return null;
+
+        if (functions.size() == 1)
+            return functions.get(0);
+
+        int statsSize = functions.get(0).getStatisticsSize();
+        int steps = 0;
+
+        double[] total = new double[statsSize];
+
+        for (PrimitiveStepFunction function : functions) {
+            if (function.getStatisticsSize() != statsSize)
+                throw new IllegalArgumentException("Merged functions have to have " + statsSize + " values per step");
+
+            steps += function.size();
+
+            for (int i = 0; i < statsSize; i++)
+                total[i] += function.getTotal()[i];
+        }
+
+        ensureCapacity(functions.size(), steps, statsSize);
+
+        Arrays.fill(running, 0, statsSize, 0);
+
+        int heapSize = 0;
+        for (int j = 0; j < functions.size(); j++) {
+            ptrs[j] = 0;
+
+            if (functions.get(j).size() > 0)
+                heapSize = push(functions, heapSize, j);
+        }
+
+        int size = 0;
+
+        while (heapSize > 0) {
+            double pnt = head(functions, heap[0]);
+
+            while (heapSize > 0 && head(functions, heap[0]) == pnt) {
+                int j = heap[0];
+                heapSize = pop(functions, heapSize);
+
+                PrimitiveStepFunction function = functions.get(j);
+                double[] fnLeft = function.getLeft();
+                int off = ptrs[j] * statsSize;
+
+                for (int i = 0; i < statsSize; i++)
+                    running[i] += ptrs[j] > 0 ? fnLeft[off + i] - fnLeft[off - statsSize + i] : fnLeft[off + i];
+
+                if (++ptrs[j] < function.size())
+                    heapSize = push(functions, heapSize, j);
+            }
+
+            x[size] = pnt;
+            System.arraycopy(running, 0, left, size * statsSize, statsSize);
+            size++;
+        }
+
+        return new PrimitiveStepFunction(
+            Arrays.copyOf(x, size),
+            Arrays.copyOf(left, size * statsSize),
+            total
+        );
+    }
+
+    /**
+     * Makes sure that buffers are big enough for the merge.
+     *
+     * @param functionsCnt Number of merged functions.
+     * @param steps Total number of steps of merged functions.
+     * @param statsSize Number of statistics values per step.
+     */
+    private void ensureCapacity(int functionsCnt, int steps, int statsSize) {
+        if (x.length < steps)
+            x = new double[Math.max(steps, x.length * 2)];
+
+        if (left.length < steps * statsSize)
+            left = new double[Math.max(steps * statsSize, left.length * 2)];
+
+        if (running.length < statsSize)
+            running = new double[statsSize];
+
+        if (ptrs.length < functionsCnt) {
+            ptrs = new int[functionsCnt];
+            heap = new int[functionsCnt];
+        }
+    }
+
+    /**
+     * Returns argument of the current step of the given function.
+     *
+     * @param functions Merged functions.
+     * @param j Index of the function.
+     * @return Argument of the current step.
+     */
+    private double head(List<PrimitiveStepFunction> functions, int j) {
+        return functions.get(j).getX()[ptrs[j]];
+    }
+
+    /**
+     * Pushes function into the heap.
+     *
+     * @param functions Merged functions.
+     * @param heapSize Size of the heap.
+     * @param j Index of the function.
+     * @return New size of the heap.
+     */
+    private int push(List<PrimitiveStepFunction> functions, int heapSize, int j) {
+        int pos = heapSize;
+        double key = head(functions, j);
+
+        while (pos > 0) {
+            int parent = (pos - 1) / 2;
+
+            if (head(functions, heap[parent]) <= key)
+                break;
+
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+
+        heap[pos] = j;
+
+        return heapSize + 1;
+    }
+
+    /**
+     * Removes the top function from the heap.
+     *
+     * @param functions Merged functions.
+     * @param heapSize Size of the heap.
+     * @return New size of the heap.
+     */
+    private int pop(List<PrimitiveStepFunction> functions, int heapSize) {
+        int last = heap[--heapSize];
+        double key = head(functions, last);
+
+        int pos = 0;
+
+        while (2 * pos + 1 < heapSize) {
+            int child = 2 * pos + 1;
+
+            if (child + 1 < heapSize && head(functions, heap[child + 1]) < head(functions, heap[child]))
+                child++;
+
+            if (key <= head(functions, heap[child]))
+                break;
+
+            heap[pos] = heap[child];
+            pos = child;
+        }
+
+        heap[pos] = last;
+
+        return heapSize;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dmitrievanthony.tree.core.distributed.dataset;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.DoubleBuffer;
+
+/**
+ * Reader of rows of a streamed partition (see {@link Partition#ofChunks(int, int, int, ChunkReader)}). Rows are read
+ * from an external storage by chunks when the partition is scanned, so data of the partition doesn't stay in memory.
+ * Readers are serialized together with partitions sent to other processes.
+ */
+public interface ChunkReader extends Serializable {
+    /**
+     * Reads the specified rows into the given buffers. Values are put starting from the index {@code 0} of every buffer
+     * using absolute operations.
+     *
+     * @param from Index of the first read row.
+     * @param cnt Number of read rows.
+     * @param columns Buffers for features (buffer per column).
+     * @param labels Buffer for labels.
+     * @throws IOException If rows can't be read.
+     */
+    public void read(int from, int cnt, DoubleBuffer[] columns, DoubleBuffer labels) throws IOException;
+
+    /**
+     * Opens a cursor used to read all chunks of a single scan of the partition. Readers that need resources (like an
+     * open file) acquire them once per scan instead of once per chunk. By default the cursor reads chunks using
+     * {@link #read(int, int, DoubleBuffer[], DoubleBuffer)}.
+     *
+     * @return Cursor.
+     * @throws IOException If cursor can't be opened.
+     */
+    default public Cursor open() throws IOException {
+        return this::read;
+    }
+
+    /**
+     * Cursor that reads chunks of a single scan of the partition.
+     */
+    public interface Cursor extends AutoCloseable {
+        /**
+         * Reads the specified rows into the given buffers (see {@link ChunkReader#read(int, int, DoubleBuffer[],
+         * DoubleBuffer)}).
+         *
+         * @param from Index of the first read row.
+         * @param cnt Number of read rows.
+         * @param columns Buffers for features (buffer per column).
+         * @param labels Buffer for labels.
+         * @throws IOException If rows can't be read.
+         */
+        public void read(int from, int cnt, DoubleBuffer[] columns, DoubleBuffer labels) throws IOException;
+
+        /** {@inheritDoc} */
+        @Override default public void close() throws IOException {
+            // No-op.
+        }
+    }
+}
@@ -17,43 +17,81 @@
 
 package com.dmitrievanthony.tree.core.distributed.dataset;
 
+import com.dmitrievanthony.tree.core.distributed.dataset.backend.ComputeBackend;
+import com.dmitrievanthony.tree.core.distributed.dataset.backend.SequentialComputeBackend;
+import com.dmitrievanthony.tree.core.distributed.dataset.backend.ThreadPoolComputeBackend;
 import java.util.Set;
-import java.util.function.BiFunction;
-import java.util.function.Function;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Dataset that consists of partitions.
+ * Dataset that consists of partitions. Computations are performed by a {@link ComputeBackend} which might process
+ * partitions sequentially, in parallel or in other processes. Partitions are reduced over a fixed partition order.
  */
 public class Dataset {
-    /** Set of partitions. */
-    private final Set<Partition> partitions;
+    /** Partitions in the order used for every computation. */
+    private final Partition[] partitions;
+
+    /** Compute backend. */
+    private final ComputeBackend backend;
 
     /**
-     * Constructs a new instance of dataset.
+     * Constructs a new instance of dataset which processes partitions sequentially.
      *
      * @param partitions Set of partitions.
      */
     public Dataset(Set<Partition> partitions) {
-        this.partitions = partitions;
+        this(partitions, new SequentialComputeBackend());
+    }
+
+    /**
+     * Constructs a new instance of dataset which processes partitions in parallel using common fork-join pool if
+     * {@code parallel} is {@code true} and sequentially otherwise.
+     *
+     * @param partitions Set of partitions.
+     * @param parallel Parallel computation flag.
+     */
+    public Dataset(Set<Partition> partitions, boolean parallel) {
+        this(partitions, parallel ? new ThreadPoolComputeBackend() : new SequentialComputeBackend());
+    }
+
+    /**
+     * Constructs a new instance of dataset which processes partitions in parallel using the specified fork-join pool.
+     *
+     * @param partitions Set of partitions.
+     * @param pool Fork-join pool ({@code null} if computation is sequential).
+     */
+    public Dataset(Set<Partition> partitions, ForkJoinPool pool) {
+        this(partitions, pool == null ? new SequentialComputeBackend() : new ThreadPoolComputeBackend(pool));
+    }
+
+    /**
+     * Constructs a new instance of dataset which uses the specified compute backend. The backend isn't closed by the
+     * dataset.
+     *
+     * @param partitions Set of partitions.
+     * @param backend Compute backend.
+     */
+    public Dataset(Set<Partition> partitions, ComputeBackend backend) {
+        this.partitions = partitions.toArray(new Partition[0]);
+        this.backend = backend;
     }
 
     /**
      * Performs the specified {@code mapper} function of every partition and then reduces results using the specified
-     * {@code reducer} function.
+     * {@code reducer} function. Depending on the backend both {@code mapper} and {@code reducer} might be called
+     * concurrently or in other processes, but every {@code reducer} call gets results of disjoint sets of partitions.
      *
      * @param mapper Mapper function applied on every partition.
      * @param reducer Reducer used to reduce results from different partitions.
      * @param <R> Type of return value.
      * @return Result.
      */
-    public <R> R compute(Function<Partition, R> mapper, BiFunction<R, R, R> reducer) {
-        R res = null;
-
-        for (Partition part : partitions) {
-            R partRes = mapper.apply(part);
-            res = reducer.apply(res, partRes);
-        }
+    public <R> R compute(SerializableFunction<Partition, R> mapper, SerializableBiFunction<R, R, R> reducer) {
+        return backend.compute(partitions, mapper, reducer);
+    }
 
-        return res;
+    /** */
+    public ComputeBackend getBackend() {
+        return backend;
     }
 }
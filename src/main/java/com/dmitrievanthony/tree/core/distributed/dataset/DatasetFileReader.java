@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dmitrievanthony.tree.core.distributed.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Reader of dataset files written by {@link DatasetFileWriter}. Only the header and the block table are read, blocks
+ * are mapped as partitions (see {@link Partition#map(FileChannel, long, int, int)}) without parsing or copying, so
+ * loading time doesn't depend on size of the dataset. Mapped partitions stay valid after the reader is closed.
+ * Blocks might also be read as streamed partitions (see {@link #streamPartition(int, int)}) which read rows chunk by
+ * chunk using a bounded buffer, so datasets larger than memory (and address space) can be used for training.
+ */
+public class DatasetFileReader implements AutoCloseable {
+    /** File. */
+    private final Path file;
+
+    /** File channel. */
+    private final FileChannel channel;
+
+    /** Number of columns. */
+    private final int colsCnt;
+
+    /** Position and number of rows of every block. */
+    private final long[] blocks;
+
+    /** Min and max value of every column of every block ({@code null} if file doesn't contain statistics). */
+    private final double[] blockStatistics;
+
+    /**
+     * Constructs a new instance of dataset file reader and reads the header and the block table.
+     *
+     * @param file File.
+     * @throws IOException If file can't be read or has unsupported format.
+     */
+    public DatasetFileReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        try {
+            ByteBuffer hdr = read(0, DatasetFileWriter.HEADER_SIZE);
+
+            if (hdr.getInt() != DatasetFileWriter.MAGIC)
+                throw new IOException("File is not a dataset file: " + file);
+
+            int ver = hdr.getInt();
+            if (ver != DatasetFileWriter.VERSION)
+                throw new IOException("Unsupported dataset file version [file=" + file + ", ver=" + ver + "]");
+
+            colsCnt = hdr.getInt();
+            int flags = hdr.getInt();
+            long tablePos = hdr.getLong();
+
+            int blocksCnt = (int)read(tablePos, Long.BYTES).getLong();
+
+            ByteBuffer table = read(tablePos + Long.BYTES, 2 * blocksCnt * Long.BYTES);
+            blocks = new long[2 * blocksCnt];
+            for (int i = 0; i < blocks.length; i++)
+                blocks[i] = table.getLong();
+
+            if ((flags & DatasetFileWriter.FLAG_STATISTICS) != 0) {
+                int statsSize = 2 * colsCnt * blocksCnt;
+
+                ByteBuffer stats = read(tablePos + Long.BYTES * (1 + blocks.length), statsSize * Double.BYTES);
+                blockStatistics = new double[statsSize];
+                for (int i = 0; i < statsSize; i++)
+                    blockStatistics[i] = stats.getDouble();
+            }
+            else
+                blockStatistics = null;
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the whole file as a dataset, every block becomes a partition.
+     *
+     * @param file File.
+     * @return Dataset.
+     * @throws IOException If file can't be read or has unsupported format.
+     */
+    public static Dataset readDataset(Path file) throws IOException {
+        try (DatasetFileReader reader = new DatasetFileReader(file)) {
+            Set<Partition> parts = new LinkedHashSet<>();
+
+            for (int block = 0; block < reader.getBlocksCnt(); block++)
+                parts.add(reader.readPartition(block));
+
+            return new Dataset(parts);
+        }
+    }
+
+    /**
+     * Maps the specified block as a partition.
+     *
+     * @param block Block.
+     * @return Partition.
+     * @throws IOException If block can't be mapped.
+     */
+    public Partition readPartition(int block) throws IOException {
+        return Partition.map(channel, blocks[2 * block], getRowsCnt(block), colsCnt);
+    }
+
+    /**
+     * Reads the specified block as a streamed partition. Rows of the block are read from the file chunk by chunk every
+     * time the partition is scanned (the file is opened once per scan and a single chunk buffer is used for all chunks
+     * of the scan), so the partition stays valid after the reader is closed.
+     *
+     * @param block Block.
+     * @param chunkSize Max number of rows in a chunk.
+     * @return Streamed partition.
+     */
+    public Partition streamPartition(int block, int chunkSize) {
+        return Partition.ofChunks(getRowsCnt(block), colsCnt, chunkSize,
+            new FileChunkReader(file.toString(), blocks[2 * block], getRowsCnt(block)));
+    }
+
+    /** */
+    public int getColumnsCnt() {
+        return colsCnt;
+    }
+
+    /** */
+    public int getBlocksCnt() {
+        return blocks.length / 2;
+    }
+
+    /**
+     * Returns number of rows in the specified block.
+     *
+     * @param block Block.
+     * @return Number of rows.
+     */
+    public int getRowsCnt(int block) {
+        return (int)blocks[2 * block + 1];
+    }
+
+    /**
+     * Checks if the file contains min and max value of every column of every block.
+     *
+     * @return {@code true} if the file contains statistics.
+     */
+    public boolean hasStatistics() {
+        return blockStatistics != null;
+    }
+
+    /**
+     * Returns min value of the column in the block.
+     *
+     * @param block Block.
+     * @param col Column.
+     * @return Min value ({@code +inf} if block is empty).
+     */
+    public double getMin(int block, int col) {
+        return statistics()[2 * (block * colsCnt + col)];
+    }
+
+    /**
+     * Returns max value of the column in the block.
+     *
+     * @param block Block.
+     * @param col Column.
+     * @return Max value ({@code -inf} if block is empty).
+     */
+    public double getMax(int block, int col) {
+        return statistics()[2 * (block * colsCnt + col) + 1];
+    }
+
+    /** {@inheritDoc} */
+    @Override public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Returns block statistics.
+     *
+     * @return Min and max value of every column of every block.
+     */
+    private double[] statistics() {
+        if (blockStatistics == null)
+            throw new IllegalStateException("Dataset file doesn't contain block statistics");
+
+        return blockStatistics;
+    }
+
+    /**
+     * Reader of chunks of a block of a dataset file.
+     */
+    private static class FileChunkReader implements ChunkReader {
+        /** */
+        private static final long serialVersionUID = 6287312405468513327L;
+
+        /** Path of the file. */
+        private final String path;
+
+        /** Position of the block in the file. */
+        private final long pos;
+
+        /** Number of rows in the block. */
+        private final int rowsCnt;
+
+        /**
+         * Constructs a new instance of file chunk reader.
+         *
+         * @param path Path of the file.
+         * @param pos Position of the block in the file.
+         * @param rowsCnt Number of rows in the block.
+         */
+        FileChunkReader(String path, long pos, int rowsCnt) {
+            this.path = path;
+            this.pos = pos;
+            this.rowsCnt = rowsCnt;
+        }
+
+        /** {@inheritDoc} */
+        @Override public void read(int from, int cnt, DoubleBuffer[] columns, DoubleBuffer labels) throws IOException {
+            try (Cursor cursor = open()) {
+                cursor.read(from, cnt, columns, labels);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override public Cursor open() throws IOException {
+            return new FileCursor(FileChannel.open(Paths.get(path), StandardOpenOption.READ));
+        }
+
+        /**
+         * Cursor which keeps the file open and reuses the chunk buffer during a scan.
+         */
+        private class FileCursor implements Cursor {
+            /** File channel. */
+            private final FileChannel channel;
+
+            /** Chunk buffer (grows to the size of the biggest chunk). */
+            private ByteBuffer buf = ByteBuffer.allocate(0);
+
+            /**
+             * Constructs a new instance of file cursor.
+             *
+             * @param channel File channel.
+             */
+            FileCursor(FileChannel channel) {
+                this.channel = channel;
+            }
+
+            /** {@inheritDoc} */
+            @Override public void read(int from, int cnt, DoubleBuffer[] columns, DoubleBuffer labels)
+                throws IOException {
+                if (buf.capacity() < cnt * Double.BYTES)
+                    buf = ByteBuffer.allocate(cnt * Double.BYTES).order(Partition.BYTE_ORDER);
+
+                for (int col = -1; col < columns.length; col++) {
+                    long colPos = pos + ((col + 1) * (long)rowsCnt + from) * Double.BYTES;
+
+                    buf.clear().limit(cnt * Double.BYTES);
+                    while (buf.hasRemaining()) {
+                        if (channel.read(buf, colPos + buf.position()) < 0)
+                            throw new IOException("Unexpected end of dataset file");
+                    }
+                    buf.flip();
+
+                    DoubleBuffer dst = col < 0 ? labels : columns[col];
+                    for (int i = 0; i < cnt; i++)
+                        dst.put(i, buf.getDouble());
+                }
+            }
+
+            /** {@inheritDoc} */
+            @Override public void close() throws IOException {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the specified number of bytes starting from the specified position.
+     *
+     * @param pos Position.
+     * @param size Number of bytes.
+     * @return Buffer with read bytes.
+     * @throws IOException If bytes can't be read.
+     */
+    private ByteBuffer read(long pos, int size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(size).order(Partition.BYTE_ORDER);
+
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, pos + buf.position()) < 0)
+                throw new IOException("Unexpected end of dataset file");
+        }
+
+        buf.flip();
+
+        return buf;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dmitrievanthony.tree.core.distributed.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writer of dataset files. A dataset file consists of a header, blocks of data and a block table:
+ * <ul>
+ *     <li>header: magic ({@code int}), version ({@code int}), number of columns ({@code int}), flags ({@code int})
+ *     and position of the block table ({@code long});</li>
+ *     <li>block: labels of all rows of the block followed by values of all rows for every column, so every block
+ *     can be mapped as a {@link Partition} (see {@link Partition#map(FileChannel, long, int, int)});</li>
+ *     <li>block table: number of blocks ({@code long}), position and number of rows ({@code long} each) of every
+ *     block and, if {@link #FLAG_STATISTICS} is set, min and max value ({@code double} each) of every column of every
+ *     block.</li>
+ * </ul>
+ * All values are stored in {@link Partition#BYTE_ORDER}. The block table is written when the writer is closed.
+ */
+public class DatasetFileWriter implements AutoCloseable {
+    /** Magic number of dataset files. */
+    public static final int MAGIC = 0x44534554;
+
+    /** Version of dataset file format. */
+    public static final int VERSION = 1;
+
+    /** Size of header in bytes. */
+    public static final int HEADER_SIZE = 24;
+
+    /** Flag that shows that the block table contains min and max value of every column of every block. */
+    public static final int FLAG_STATISTICS = 1;
+
+    /** File channel. */
+    private final FileChannel channel;
+
+    /** Number of columns. */
+    private final int colsCnt;
+
+    /** Flag that shows that min and max values of every column of every block are written. */
+    private final boolean statistics;
+
+    /** Position and number of rows of every written block. */
+    private long[] blocks = new long[16];
+
+    /** Min and max value of every column of every written block. */
+    private double[] blockStatistics = new double[0];
+
+    /** Number of written blocks. */
+    private int blocksCnt;
+
+    /**
+     * Constructs a new instance of dataset file writer. Existing file is truncated.
+     *
+     * @param file File.
+     * @param colsCnt Number of columns.
+     * @param statistics Flag that shows that min and max values of every column of every block are written.
+     * @throws IOException If file can't be opened.
+     */
+    public DatasetFileWriter(Path file, int colsCnt, boolean statistics) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        this.colsCnt = colsCnt;
+        this.statistics = statistics;
+
+        channel.position(HEADER_SIZE);
+    }
+
+    /**
+     * Writes a block of rows (a block becomes a partition when the file is read).
+     *
+     * @param columns Features (array of columns).
+     * @param labels Labels.
+     * @throws IOException If block can't be written.
+     */
+    public void write(double[][] columns, double[] labels) throws IOException {
+        write(Partition.ofColumns(columns, labels));
+    }
+
+    /**
+     * Writes all rows of the partition as a block (a block becomes a partition when the file is read).
+     *
+     * @param part Partition.
+     * @throws IOException If block can't be written.
+     */
+    public void write(Partition part) throws IOException {
+        if (part.getColumnsCnt() != colsCnt)
+            throw new IllegalArgumentException("Partition has to contain " + colsCnt + " columns");
+
+        if (2 * blocksCnt + 2 > blocks.length)
+            blocks = Arrays.copyOf(blocks, blocks.length * 2);
+
+        blocks[2 * blocksCnt] = channel.position();
+        blocks[2 * blocksCnt + 1] = part.getRowsCnt();
+
+        write(part.getLabels());
+
+        for (int col = 0; col < colsCnt; col++)
+            write(part.getColumn(col));
+
+        if (statistics) {
+            if ((blocksCnt + 1) * 2 * colsCnt > blockStatistics.length)
+                blockStatistics = Arrays.copyOf(blockStatistics,
+                    Math.max(blockStatistics.length * 2, (blocksCnt + 1) * 2 * colsCnt));
+
+            for (int col = 0; col < colsCnt; col++) {
+                DoubleBuffer column = part.getColumn(col);
+
+                double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < part.getRowsCnt(); i++) {
+                    min = Math.min(min, column.get(i));
+                    max = Math.max(max, column.get(i));
+                }
+
+                blockStatistics[2 * (blocksCnt * colsCnt + col)] = min;
+                blockStatistics[2 * (blocksCnt * colsCnt + col) + 1] = max;
+            }
+        }
+
+        blocksCnt++;
+    }
+
+    /**
+     * Writes the block table and the header and closes the file.
+     *
+     * @throws IOException If file can't be written.
+     */
+    @Override public void close() throws IOException {
+        try {
+            long tablePos = channel.position();
+
+            int statsSize = statistics ? 2 * colsCnt * blocksCnt : 0;
+
+            ByteBuffer table = ByteBuffer.allocate(Long.BYTES * (1 + 2 * blocksCnt) + Double.BYTES * statsSize)
+                .order(Partition.BYTE_ORDER);
+
+            table.putLong(blocksCnt);
+
+            for (int i = 0; i < 2 * blocksCnt; i++)
+                table.putLong(blocks[i]);
+
+            for (int i = 0; i < statsSize; i++)
+                table.putDouble(blockStatistics[i]);
+
+            table.flip();
+            writeFully(table, tablePos);
+
+            ByteBuffer hdr = ByteBuffer.allocate(HEADER_SIZE).order(Partition.BYTE_ORDER);
+
+            hdr.putInt(MAGIC);
+            hdr.putInt(VERSION);
+            hdr.putInt(colsCnt);
+            hdr.putInt(statistics ? FLAG_STATISTICS : 0);
+            hdr.putLong(tablePos);
+
+            hdr.flip();
+            writeFully(hdr, 0);
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes all remaining values of the buffer at the current position.
+     *
+     * @param buf Buffer of doubles.
+     * @throws IOException If buffer can't be written.
+     */
+    private void write(DoubleBuffer buf) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(Math.min(buf.limit(), 8192) * Double.BYTES).order(Partition.BYTE_ORDER);
+
+        for (int off = 0; off < buf.limit(); ) {
+            bytes.clear();
+
+            while (off < buf.limit() && bytes.remaining() >= Double.BYTES)
+                bytes.putDouble(buf.get(off++));
+
+            bytes.flip();
+            writeFully(bytes, channel.position());
+        }
+    }
+
+    /**
+     * Writes all remaining bytes of the buffer at the specified position and moves channel position after them.
+     *
+     * @param buf Buffer.
+     * @param pos Position.
+     * @throws IOException If buffer can't be written.
+     */
+    private void writeFully(ByteBuffer buf, long pos) throws IOException {
+        channel.position(pos);
+
+        while (buf.hasRemaining())
+            channel.write(buf);
+    }
+}
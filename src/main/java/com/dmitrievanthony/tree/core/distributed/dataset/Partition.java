@@ -17,34 +17,466 @@
 
 package com.dmitrievanthony.tree.core.distributed.dataset;
 
+import com.dmitrievanthony.tree.utils.sort.DoubleSort;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 /**
- * Partition that contains data and used as part of {@link Dataset}.
+ * Partition that contains data and used as part of {@link Dataset}. Features are stored column by column (one
+ * contiguous buffer per column), so scans over a column read consecutive memory. Buffers might be heap buffers
+ * wrapping arrays, direct buffers or buffers mapped from a file, in the last two cases data stays out of the Java heap
+ * and is read in place.
+ * <p>
+ * A partition might also be streamed (see {@link #ofChunks(int, int, int, ChunkReader)}). Data of a streamed
+ * partition isn't kept in memory, it's read chunk by chunk every time the partition is scanned (see
+ * {@link #getChunks()}), so only per-row state maintained by trainers is kept for every row.
+ * <p>
+ * Serialized partition contains data (or chunk reader of a streamed partition) only, state maintained by trainers is
+ * not serialized.
  */
-public class Partition {
-    /** Features. */
-    private final double[][] features;
+public class Partition implements Serializable {
+    /** */
+    private static final long serialVersionUID = -1548403870335298409L;
+
+    /** Byte order of data in files mapped by {@link #map(FileChannel, long, int, int)}. */
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /** Features stored column by column ({@code null} if partition is streamed). */
+    private final DoubleBuffer[] columns;
+
+    /** Labels ({@code null} if partition is streamed). */
+    private final DoubleBuffer labels;
 
-    /** Labels. */
-    private final double[] labels;
+    /** Number of rows. */
+    private final int rowsCnt;
+
+    /** Number of columns. */
+    private final int colsCnt;
+
+    /** Max number of rows in a chunk of streamed partition. */
+    private final int chunkSize;
+
+    /** Reader of chunks ({@code null} if data of partition is kept in memory). */
+    private final ChunkReader chunkReader;
+
+    /** Indices of rows sorted by values of every column (calculated lazily, might be {@code null}). */
+    private int[][] sortedIndices;
 
     /**
-     * Constructs a new instance of partition.
+     * Constructs a new instance of partition using features stored row by row.
      *
-     * @param features Features.
+     * @param features Features (array of rows).
      * @param labels Labels.
      */
     public Partition(double[][] features, double[] labels) {
-        this.features = features;
-        this.labels = labels;
+        this(wrap(transpose(features)), DoubleBuffer.wrap(labels));
+    }
+
+    /**
+     * Constructs a new instance of partition.
+     *
+     * @param columns Features stored column by column.
+     * @param labels Labels.
+     */
+    private Partition(DoubleBuffer[] columns, DoubleBuffer labels) {
+        for (DoubleBuffer column : columns)
+            if (column.remaining() != labels.remaining())
+                throw new IllegalArgumentException("Every column has to contain " + labels.remaining() + " values");
+
+        this.columns = new DoubleBuffer[columns.length];
+        for (int col = 0; col < columns.length; col++)
+            this.columns[col] = columns[col].slice();
+
+        this.labels = labels.slice();
+        this.rowsCnt = labels.remaining();
+        this.colsCnt = columns.length;
+        this.chunkSize = rowsCnt;
+        this.chunkReader = null;
+    }
+
+    /**
+     * Constructs a new instance of streamed partition.
+     *
+     * @param rowsCnt Number of rows.
+     * @param colsCnt Number of columns.
+     * @param chunkSize Max number of rows in a chunk.
+     * @param chunkReader Reader of chunks.
+     */
+    private Partition(int rowsCnt, int colsCnt, int chunkSize, ChunkReader chunkReader) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("Chunk size has to be positive");
+
+        this.columns = null;
+        this.labels = null;
+        this.rowsCnt = rowsCnt;
+        this.colsCnt = colsCnt;
+        this.chunkSize = chunkSize;
+        this.chunkReader = chunkReader;
+    }
+
+    /**
+     * Creates a new partition using features stored column by column. Arrays are used as is, without copying.
+     *
+     * @param columns Features (array of columns).
+     * @param labels Labels.
+     * @return Partition.
+     */
+    public static Partition ofColumns(double[][] columns, double[] labels) {
+        return new Partition(wrap(columns), DoubleBuffer.wrap(labels));
+    }
+
+    /**
+     * Creates a new partition using features stored column by column in buffers. Remaining elements of the buffers are
+     * used as is, without copying, so direct buffers keep data out of the Java heap.
+     *
+     * @param columns Features (buffer per column).
+     * @param labels Labels.
+     * @return Partition.
+     */
+    public static Partition ofBuffers(DoubleBuffer[] columns, DoubleBuffer labels) {
+        return new Partition(columns, labels);
+    }
+
+    /**
+     * Creates a new streamed partition. Data of the partition is read by the given reader chunk by chunk every time the
+     * partition is scanned, so at most {@code chunkSize} rows are kept in memory.
+     *
+     * @param rowsCnt Number of rows.
+     * @param colsCnt Number of columns.
+     * @param chunkSize Max number of rows in a chunk.
+     * @param chunkReader Reader of chunks.
+     * @return Partition.
+     */
+    public static Partition ofChunks(int rowsCnt, int colsCnt, int chunkSize, ChunkReader chunkReader) {
+        return new Partition(rowsCnt, colsCnt, chunkSize, chunkReader);
+    }
+
+    /**
+     * Creates a new partition which data is mapped from a region of the file. The region starts with labels of all rows
+     * followed by values of all rows for every column, all values are stored as doubles in {@link #BYTE_ORDER}. The
+     * file is mapped read-only and read in place, so the data stays out of the Java heap and the OS page cache is
+     * shared between all processes that map the same file.
+     *
+     * @param channel File channel.
+     * @param pos Position of the region in the file.
+     * @param rowsCnt Number of rows.
+     * @param colsCnt Number of columns.
+     * @return Partition.
+     * @throws IOException If file can't be mapped.
+     */
+    public static Partition map(FileChannel channel, long pos, int rowsCnt, int colsCnt) throws IOException {
+        long bufSize = (long)rowsCnt * Double.BYTES;
+
+        DoubleBuffer labels = map(channel, pos, bufSize);
+
+        DoubleBuffer[] columns = new DoubleBuffer[colsCnt];
+        for (int col = 0; col < colsCnt; col++)
+            columns[col] = map(channel, pos + (col + 1) * bufSize, bufSize);
+
+        return new Partition(columns, labels);
+    }
+
+    /**
+     * Returns values of all rows for the specified column. The buffer should be read using absolute operations.
+     *
+     * @param col Column.
+     * @return Values of the column.
+     */
+    public DoubleBuffer getColumn(int col) {
+        checkNotStreamed();
+
+        return columns[col];
     }
 
     /** */
-    public double[][] getFeatures() {
-        return features;
+    public int getColumnsCnt() {
+        return colsCnt;
     }
 
     /** */
-    public double[] getLabels() {
+    public int getRowsCnt() {
+        return rowsCnt;
+    }
+
+    /**
+     * Checks if the partition is streamed, so its data is available by chunks only (see {@link #getChunks()}).
+     *
+     * @return {@code true} if the partition is streamed.
+     */
+    public boolean isStreamed() {
+        return chunkReader != null;
+    }
+
+    /**
+     * Returns chunks of the partition. Every chunk is a partition that keeps data of consecutive rows in memory, chunks
+     * are returned in the order of rows. A partition that isn't streamed consists of a single chunk (itself). Chunks of
+     * a streamed partition are read when the iterator moves to them and share buffers, so a chunk shouldn't be used
+     * after the next one is requested.
+     *
+     * @return Chunks of the partition.
+     */
+    public Iterable<Partition> getChunks() {
+        if (chunkReader == null)
+            return Collections.singletonList(this);
+
+        return ChunkIterator::new;
+    }
+
+    /**
+     * Returns labels of all rows. The buffer should be read using absolute operations.
+     *
+     * @return Labels.
+     */
+    public DoubleBuffer getLabels() {
+        checkNotStreamed();
+
         return labels;
     }
+
+    /**
+     * Returns indices of rows sorted by values of every column. Indices are calculated on the first call and cached.
+     *
+     * @return Indices of rows sorted by values of every column.
+     */
+    public int[][] getSortedIndices() {
+        checkNotStreamed();
+
+        if (sortedIndices == null) {
+            int[][] res = new int[columns.length][];
+
+            double[] keys = new double[getRowsCnt()];
+
+            for (int col = 0; col < res.length; col++) {
+                for (int i = 0; i < keys.length; i++)
+                    keys[i] = columns[col].get(i);
+
+                res[col] = DoubleSort.argSort(keys);
+            }
+
+            sortedIndices = res;
+        }
+
+        return sortedIndices;
+    }
+
+    /**
+     * Replaces the partition by its serialized form.
+     *
+     * @return Serialized form of the partition.
+     */
+    private Object writeReplace() {
+        return new SerializedPartition(this);
+    }
+
+    /**
+     * Checks that data of the partition is kept in memory.
+     *
+     * @throws UnsupportedOperationException If the partition is streamed.
+     */
+    private void checkNotStreamed() {
+        if (chunkReader != null)
+            throw new UnsupportedOperationException("Partition is streamed, its data is available by chunks only");
+    }
+
+    /**
+     * Maps a region of the file as a read-only buffer of doubles.
+     *
+     * @param channel File channel.
+     * @param pos Position of the region in the file.
+     * @param size Size of the region in bytes.
+     * @return Buffer of doubles.
+     * @throws IOException If file can't be mapped.
+     */
+    private static DoubleBuffer map(FileChannel channel, long pos, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, pos, size).order(BYTE_ORDER).asDoubleBuffer();
+    }
+
+    /**
+     * Wraps every array into a buffer.
+     *
+     * @param columns Features (array of columns).
+     * @return Features (buffer per column).
+     */
+    private static DoubleBuffer[] wrap(double[][] columns) {
+        DoubleBuffer[] res = new DoubleBuffer[columns.length];
+
+        for (int col = 0; col < columns.length; col++)
+            res[col] = DoubleBuffer.wrap(columns[col]);
+
+        return res;
+    }
+
+    /**
+     * Converts features stored row by row into features stored column by column.
+     *
+     * @param features Features (array of rows).
+     * @return Features (array of columns).
+     */
+    private static double[][] transpose(double[][] features) {
+        double[][] res = new double[features.length == 0 ? 0 : features[0].length][features.length];
+
+        for (int row = 0; row < features.length; row++)
+            for (int col = 0; col < res.length; col++)
+                res[col][row] = features[row][col];
+
+        return res;
+    }
+
+    /**
+     * Iterator over chunks of a streamed partition that reads chunks into buffers reused for all chunks. A cursor of
+     * the chunk reader is opened when the first chunk is read and closed after the last one.
+     */
+    private class ChunkIterator implements Iterator<Partition> {
+        /** Buffers for features (buffer per column). */
+        private final DoubleBuffer[] chunkColumns = new DoubleBuffer[colsCnt];
+
+        /** Buffer for labels. */
+        private final DoubleBuffer chunkLabels;
+
+        /** Index of the first row of the next chunk. */
+        private int from;
+
+        /** Cursor of the chunk reader ({@code null} if it isn't opened yet or already closed). */
+        private ChunkReader.Cursor cursor;
+
+        /**
+         * Constructs a new instance of chunk iterator.
+         */
+        ChunkIterator() {
+            int size = Math.min(chunkSize, rowsCnt);
+
+            for (int col = 0; col < colsCnt; col++)
+                chunkColumns[col] = DoubleBuffer.allocate(size);
+
+            chunkLabels = DoubleBuffer.allocate(size);
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean hasNext() {
+            return from < rowsCnt;
+        }
+
+        /** {@inheritDoc} */
+        @Override public Partition next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            int cnt = Math.min(chunkSize, rowsCnt - from);
+
+            try {
+                if (cursor == null)
+                    cursor = chunkReader.open();
+
+                cursor.read(from, cnt, chunkColumns, chunkLabels);
+
+                from += cnt;
+
+                if (from == rowsCnt)
+                    closeCursor();
+            }
+            catch (IOException | RuntimeException e) {
+                try {
+                    closeCursor();
+                }
+                catch (IOException closeErr) {
+                    e.addSuppressed(closeErr);
+                }
+
+                throw e instanceof IOException ? new UncheckedIOException((IOException)e) : (RuntimeException)e;
+            }
+
+            DoubleBuffer[] columns = new DoubleBuffer[colsCnt];
+            for (int col = 0; col < colsCnt; col++)
+                columns[col] = (DoubleBuffer)chunkColumns[col].duplicate().clear().limit(cnt);
+
+            return new Partition(columns, (DoubleBuffer)chunkLabels.duplicate().clear().limit(cnt));
+        }
+
+        /**
+         * Closes the cursor of the chunk reader (if it's opened).
+         *
+         * @throws IOException If cursor can't be closed.
+         */
+        private void closeCursor() throws IOException {
+            if (cursor != null) {
+                ChunkReader.Cursor c = cursor;
+                cursor = null;
+                c.close();
+            }
+        }
+    }
+
+    /**
+     * Serialized form of partition: values of all columns and labels copied into arrays or chunk reader of a streamed
+     * partition.
+     */
+    private static class SerializedPartition implements Serializable {
+        /** */
+        private static final long serialVersionUID = 6387453521839384725L;
+
+        /** Features stored column by column ({@code null} if partition is streamed). */
+        private final double[][] columns;
+
+        /** Labels ({@code null} if partition is streamed). */
+        private final double[] labels;
+
+        /** Number of rows. */
+        private final int rowsCnt;
+
+        /** Number of columns. */
+        private final int colsCnt;
+
+        /** Max number of rows in a chunk of streamed partition. */
+        private final int chunkSize;
+
+        /** Reader of chunks ({@code null} if data of partition is kept in memory). */
+        private final ChunkReader chunkReader;
+
+        /**
+         * Constructs a new instance of serialized form of partition.
+         *
+         * @param part Partition.
+         */
+        SerializedPartition(Partition part) {
+            rowsCnt = part.rowsCnt;
+            colsCnt = part.colsCnt;
+            chunkSize = part.chunkSize;
+            chunkReader = part.chunkReader;
+
+            if (chunkReader == null) {
+                columns = new double[colsCnt][rowsCnt];
+                labels = new double[rowsCnt];
+
+                for (int i = 0; i < rowsCnt; i++) {
+                    for (int col = 0; col < colsCnt; col++)
+                        columns[col][i] = part.columns[col].get(i);
+
+                    labels[i] = part.labels.get(i);
+                }
+            }
+            else {
+                columns = null;
+                labels = null;
+            }
+        }
+
+        /**
+         * Replaces serialized form by partition.
+         *
+         * @return Partition.
+         */
+        private Object readResolve() {
+            if (chunkReader == null)
+                return ofColumns(columns, labels);
+
+            return ofChunks(rowsCnt, colsCnt, chunkSize, chunkReader);
+        }
+    }
 }
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dmitrievanthony.tree.core.distributed.dataset.backend;
+
+import com.dmitrievanthony.tree.core.distributed.dataset.Partition;
+import com.dmitrievanthony.tree.core.distributed.dataset.SerializableBiFunction;
+import com.dmitrievanthony.tree.core.distributed.dataset.SerializableFunction;
+
+/**
+ * Compute backend used by {@link com.dmitrievanthony.tree.core.distributed.dataset.Dataset} to map partitions and
+ * reduce results. Backends might process partitions sequentially, in parallel or in other processes (in the last
+ * case mapper, reducer and results are serialized).
+ */
+public interface ComputeBackend extends AutoCloseable {
+    /**
+     * Performs the specified {@code mapper} function of every partition and then reduces results using the specified
+     * {@code reducer} function. Every {@code reducer} call gets results of disjoint sets of adjacent partitions, left
+     * argument corresponds to the preceding partitions.
+     *
+     * @param partitions Partitions in the order used for every computation.
+     * @param mapper Mapper function applied on every partition.
+     * @param reducer Reducer used to reduce results from different partitions.
+     * @param <R> Type of return value.
+     * @return Result ({@code null} if there are no partitions).
+     */
+    public <R> R compute(Partition[] partitions, SerializableFunction<Partition, R> mapper,
+        SerializableBiFunction<R, R, R> reducer);
+
+    /** {@inheritDoc} */
+    @Override default public void close() {
+        // No-op.
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dmitrievanthony.tree.core.distributed.dataset.backend;
+
+import com.dmitrievanthony.tree.core.distributed.dataset.Partition;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Worker process of {@link MultiProcessComputeBackend}. A worker connects to the coordinator over a loopback socket,
+ * keeps partitions sent by the coordinator and processes tasks (mapper and reducer) on them until it gets a stop
+ * message. Every message is a tag followed by a length-prefixed serialized object.
+ */
+public class ComputeWorker {
+    /** Message tag: stop the worker. */
+    static final byte STOP = 0;
+
+    /** Message tag: partitions owned by the worker. */
+    static final byte PARTITIONS = 1;
+
+    /** Message tag: task to be performed on owned partitions. */
+    static final byte TASK = 2;
+
+    /** Reply tag: result of the task. */
+    static final byte RESULT = 3;
+
+    /** Reply tag: error occurred during the task. */
+    static final byte ERROR = 4;
+
+    /**
+     * Starts a worker.
+     *
+     * @param args Port of the coordinator and index of the worker.
+     * @throws Exception If worker fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        int idx = Integer.parseInt(args[1]);
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            out.writeInt(idx);
+            out.flush();
+
+            Partition[] partitions = new Partition[0];
+
+            while (true) {
+                byte tag = in.readByte();
+
+                if (tag == STOP)
+                    return;
+
+                Object msg = deserialize(readBytes(in));
+
+                if (tag == PARTITIONS)
+                    partitions = (Partition[])msg;
+                else if (tag == TASK) {
+                    byte[] reply;
+                    byte replyTag = RESULT;
+
+                    try {
+                        Task<?> task = (Task<?>)msg;
+                        reply = serialize(task.compute(partitions));
+                    }
+                    catch (Throwable e) {
+                        replyTag = ERROR;
+                        reply = serializeError(e);
+                    }
+
+                    out.writeByte(replyTag);
+                    writeBytes(out, reply);
+                    out.flush();
+                }
+                else
+                    throw new IllegalStateException("Unknown message [tag=" + tag + "]");
+            }
+        }
+    }
+
+    /**
+     * Serializes the given object.
+     *
+     * @param obj Object.
+     * @return Serialized object.
+     * @throws IOException If object can't be serialized.
+     */
+    static byte[] serialize(Object obj) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(obj);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Serializes the given error. If the error can't be serialized it's replaced by an exception with the same
+     * message.
+     *
+     * @param e Error.
+     * @return Serialized error.
+     * @throws IOException If error can't be serialized.
+     */
+    static byte[] serializeError(Throwable e) throws IOException {
+        try {
+            return serialize(e);
+        }
+        catch (NotSerializableException ignored) {
+            return serialize(new RuntimeException(e.toString()));
+        }
+    }
+
+    /**
+     * Deserializes an object.
+     *
+     * @param bytes Serialized object.
+     * @return Object.
+     * @throws IOException If object can't be deserialized.
+     */
+    static Object deserialize(byte[] bytes) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+        catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Writes length-prefixed bytes.
+     *
+     * @param out Output stream.
+     * @param bytes Bytes.
+     * @throws IOException If bytes can't be written.
+     */
+    static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads length-prefixed bytes.
+     *
+     * @param in Input stream.
+     * @return Bytes.
+     * @throws IOException If bytes can't be read.
+     */
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+
+        return bytes;
+    }
+
+    /**
+     * Task sent to a worker: mapper and reducer applied to partitions owned by the worker.
+     *
+     * @param <R> Type of return value.
+     */
+    static class Task<R> implements Serializable {
+        /** */
+        private static final long serialVersionUID = 2781236374659081625L;
+
+        /** Mapper function applied on every partition. */
+        private final Function<Partition, R> mapper;
+
+        /** Reducer used to reduce results from different partitions. */
+        private final BiFunction<R, R, R> reducer;
+
+        /**
+         * Constructs a new instance of task.
+         *
+         * @param mapper Mapper function applied on every partition.
+         * @param reducer Reducer used to reduce results from different partitions.
+         */
+        Task(Function<Partition, R> mapper, BiFunction<R, R, R> reducer) {
+            this.mapper = mapper;
+            this.reducer = reducer;
+        }
+
+        /**
+         * Performs the task on the given partitions.
+         *
+         * @param partitions Partitions.
+         * @return Result ({@code null} if there are no partitions).
+         */
+        R compute(Partition[] partitions) {
+            return SequentialComputeBackend.compute(partitions, 0, partitions.length, mapper, reducer);
+        }
+    }
+}
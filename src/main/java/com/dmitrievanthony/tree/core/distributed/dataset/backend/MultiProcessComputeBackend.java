@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dmitrievanthony.tree.core.distributed.dataset.backend;
+
+import com.dmitrievanthony.tree.core.distributed.dataset.Partition;
+import com.dmitrievanthony.tree.core.distributed.dataset.SerializableBiFunction;
+import com.dmitrievanthony.tree.core.distributed.dataset.SerializableFunction;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compute backend which processes partitions in worker JVMs started on the same host. Every worker owns a contiguous
+ * range of partitions (partitions are sent to workers on the first computation) and talks to the coordinator (this
+ * backend) over a loopback socket. Mappers, reducers and results are serialized. Ranges of workers are subtrees of
+ * the balanced binary tree {@link SequentialComputeBackend} uses to reduce results, workers map and reduce their
+ * partitions and the coordinator reduces results of workers along the rest of the same tree, so the result is the
+ * same as the result of {@link SequentialComputeBackend}.
+ * <p>
+ * State kept by partitions (for example, identifiers of tree nodes maintained by trainers) lives in workers, so it's
+ * not visible in partitions of the coordinator. For the same reason a backend is bound to the partitions of the first
+ * computation: later computations have to use the same partitions in the same order (for example, datasets sharing
+ * the backend have to be built from the same set of partitions), otherwise they are rejected.
+ */
+public class MultiProcessComputeBackend implements ComputeBackend {
+    /** Timeout of worker connection in milliseconds. */
+    private static final int CONNECT_TIMEOUT = 60_000;
+
+    /** Worker processes. */
+    private final List<Process> processes = new ArrayList<>();
+
+    /** Sockets connected to workers (in the order of worker indices). */
+    private final Socket[] sockets;
+
+    /** Output streams of workers. */
+    private final DataOutputStream[] outs;
+
+    /** Input streams of workers. */
+    private final DataInputStream[] ins;
+
+    /** Partitions sent to workers and the backend is bound to ({@code null} if partitions haven't been sent yet). */
+    private Partition[] sentPartitions;
+
+    /** Index of the first partition owned by every worker (inclusive). */
+    private int[] rangeFrom;
+
+    /** Index of the last partition owned by every worker (exclusive). */
+    private int[] rangeTo;
+
+    /**
+     * Constructs a new instance of multi-process compute backend and starts worker JVMs. Workers use the class path of
+     * the current JVM.
+     *
+     * @param workersCnt Number of workers.
+     * @throws IOException If workers can't be started.
+     */
+    public MultiProcessComputeBackend(int workersCnt) throws IOException {
+        this(workersCnt, Collections.emptyList());
+    }
+
+    /**
+     * Constructs a new instance of multi-process compute backend and starts worker JVMs. Workers use the class path of
+     * the current JVM.
+     *
+     * @param workersCnt Number of workers.
+     * @param jvmOpts Options of worker JVMs.
+     * @throws IOException If workers can't be started.
+     */
+    public MultiProcessComputeBackend(int workersCnt, List<String> jvmOpts) throws IOException {
+        if (workersCnt <= 0)
+            throw new IllegalArgumentException("Number of workers has to be positive");
+
+        sockets = new Socket[workersCnt];
+        outs = new DataOutputStream[workersCnt];
+        ins = new DataInputStream[workersCnt];
+
+        try (ServerSocket srv = new ServerSocket(0, workersCnt, InetAddress.getLoopbackAddress())) {
+            srv.setSoTimeout(CONNECT_TIMEOUT);
+
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+            for (int i = 0; i < workersCnt; i++) {
+                List<String> cmd = new ArrayList<>();
+                cmd.add(java);
+                cmd.addAll(jvmOpts);
+                cmd.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), ComputeWorker.class.getName(),
+                    String.valueOf(srv.getLocalPort()), String.valueOf(i)));
+
+                processes.add(new ProcessBuilder(cmd).inheritIO().start());
+            }
+
+            for (int i = 0; i < workersCnt; i++) {
+                Socket socket = srv.accept();
+                socket.setTcpNoDelay(true);
+
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                int idx = in.readInt();
+
+                sockets[idx] = socket;
+                ins[idx] = in;
+                outs[idx] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override public synchronized <R> R compute(Partition[] partitions, SerializableFunction<Partition, R> mapper,
+        SerializableBiFunction<R, R, R> reducer) {
+        if (partitions.length == 0)
+            return null;
+
+        try {
+            if (sentPartitions == null)
+                sendPartitions(partitions);
+            else if (!isSent(partitions))
+                throw new IllegalStateException("Backend is bound to other partitions, a multi-process backend can't " +
+                    "be shared by datasets with different partitions");
+
+            byte[] task = ComputeWorker.serialize(new ComputeWorker.Task<>(mapper, reducer));
+
+            for (int i = 0; i < outs.length; i++) {
+                if (rangeTo[i] > rangeFrom[i]) {
+                    outs[i].writeByte(ComputeWorker.TASK);
+                    ComputeWorker.writeBytes(outs[i], task);
+                    outs[i].flush();
+                }
+            }
+
+            List<R> results = new ArrayList<>(Collections.nCopies(ins.length, null));
+            Throwable err = null;
+
+            for (int i = 0; i < ins.length; i++) {
+                if (rangeTo[i] > rangeFrom[i]) {
+                    byte tag = ins[i].readByte();
+                    Object res = ComputeWorker.deserialize(ComputeWorker.readBytes(ins[i]));
+
+                    if (tag == ComputeWorker.ERROR) {
+                        if (err == null)
+                            err = (Throwable)res;
+                    }
+                    else {
+                        @SuppressWarnings("unchecked")
+                        R workerRes = (R)res;
+                        results.set(i, workerRes);
+                    }
+                }
+            }
+
+            if (err != null)
+                throw new IllegalStateException("Computation failed on worker", err);
+
+            return reduce(results, 0, partitions.length, reducer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stops workers.
+     */
+    @Override public synchronized void close() {
+        for (int i = 0; i < sockets.length; i++) {
+            if (sockets[i] != null) {
+                try {
+                    outs[i].writeByte(ComputeWorker.STOP);
+                    outs[i].flush();
+                    sockets[i].close();
+                }
+                catch (IOException ignored) {
+                    // Worker is already stopped.
+                }
+            }
+        }
+
+        for (Process proc : processes) {
+            try {
+                if (!proc.waitFor(10, TimeUnit.SECONDS))
+                    proc.destroyForcibly();
+            }
+            catch (InterruptedException e) {
+                proc.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Sends partitions to workers. Partitions are split into ranges the same way {@link SequentialComputeBackend}
+     * splits them to reduce results, every worker gets a range.
+     *
+     * @param partitions Partitions.
+     * @throws IOException If partitions can't be sent.
+     */
+    private void sendPartitions(Partition[] partitions) throws IOException {
+        rangeFrom = new int[outs.length];
+        rangeTo = new int[outs.length];
+
+        assign(0, partitions.length, 0, outs.length);
+
+        for (int i = 0; i < outs.length; i++) {
+            outs[i].writeByte(ComputeWorker.PARTITIONS);
+            ComputeWorker.writeBytes(outs[i],
+                ComputeWorker.serialize(Arrays.copyOfRange(partitions, rangeFrom[i], rangeTo[i])));
+            outs[i].flush();
+        }
+
+        sentPartitions = partitions;
+    }
+
+    /**
+     * Checks if the given partitions are the partitions sent to workers (the same partitions in the same order).
+     *
+     * @param partitions Partitions.
+     * @return {@code true} if the given partitions are sent to workers.
+     */
+    private boolean isSent(Partition[] partitions) {
+        if (partitions.length != sentPartitions.length)
+            return false;
+
+        for (int i = 0; i < partitions.length; i++)
+            if (partitions[i] != sentPartitions[i])
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Assigns partitions in the specified range to workers in the specified range. The range is split at the same
+     * point {@link SequentialComputeBackend} splits it, workers are split proportionally to sizes of both halves.
+     * Workers left without partitions get an empty range.
+     *
+     * @param from Index of the first partition (inclusive).
+     * @param to Index of the last partition (exclusive).
+     * @param workerFrom Index of the first worker (inclusive).
+     * @param workerTo Index of the last worker (exclusive).
+     */
+    private void assign(int from, int to, int workerFrom, int workerTo) {
+        if (workerTo - workerFrom == 1 || to - from <= 1) {
+            rangeFrom[workerFrom] = from;
+            rangeTo[workerFrom] = to;
+
+            for (int i = workerFrom + 1; i < workerTo; i++) {
+                rangeFrom[i] = to;
+                rangeTo[i] = to;
+            }
+
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        int workersCnt = workerTo - workerFrom;
+        int leftWorkersCnt = (int)Math.round((double)workersCnt * (mid - from) / (to - from));
+        int workerMid = workerFrom + Math.max(1, Math.min(workersCnt - 1, leftWorkersCnt));
+
+        assign(from, mid, workerFrom, workerMid);
+        assign(mid, to, workerMid, workerTo);
+    }
+
+    /**
+     * Reduces results of workers owning partitions in the specified range along the balanced binary tree
+     * {@link SequentialComputeBackend} uses.
+     *
+     * @param results Results of workers (in the order of worker indices).
+     * @param from Index of the first partition (inclusive).
+     * @param to Index of the last partition (exclusive).
+     * @param reducer Reducer.
+     * @param <R> Type of return value.
+     * @return Result.
+     */
+    private <R> R reduce(List<R> results, int from, int to, SerializableBiFunction<R, R, R> reducer) {
+        for (int i = 0; i < results.size(); i++)
+            if (rangeFrom[i] == from && rangeTo[i] == to)
+                return results.get(i);
+
+        int mid = (from + to) >>> 1;
+
+        return reducer.apply(reduce(results, from, mid, reducer), reduce(results, mid, to, reducer));
+    }
+}
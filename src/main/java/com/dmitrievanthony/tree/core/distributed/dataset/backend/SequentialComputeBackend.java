@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dmitrievanthony.tree.core.distributed.dataset.backend;
+
+import com.dmitrievanthony.tree.core.distributed.dataset.Partition;
+import com.dmitrievanthony.tree.core.distributed.dataset.SerializableBiFunction;
+import com.dmitrievanthony.tree.core.distributed.dataset.SerializableFunction;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Compute backend which processes partitions sequentially in the current thread. Results are reduced using a balanced
+ * binary tree of {@code reducer} calls, the same tree as {@link ThreadPoolComputeBackend} uses.
+ */
+public class SequentialComputeBackend implements ComputeBackend {
+    /** {@inheritDoc} */
+    @Override public <R> R compute(Partition[] partitions, SerializableFunction<Partition, R> mapper,
+        SerializableBiFunction<R, R, R> reducer) {
+        return compute(partitions, 0, partitions.length, mapper, reducer);
+    }
+
+    /**
+     * Maps partitions in the specified range and reduces results as a balanced binary tree.
+     *
+     * @param partitions Partitions.
+     * @param from Index of the first partition (inclusive).
+     * @param to Index of the last partition (exclusive).
+     * @param mapper Mapper function applied on every partition.
+     * @param reducer Reducer used to reduce results from different partitions.
+     * @param <R> Type of return value.
+     * @return Result ({@code null} if range is empty).
+     */
+    static <R> R compute(Partition[] partitions, int from, int to, Function<Partition, R> mapper,
+        BiFunction<R, R, R> reducer) {
+        if (from >= to)
+            return null;
+
+        if (to - from == 1)
+            return mapper.apply(partitions[from]);
+
+        int mid = (from + to) >>> 1;
+
+        R leftRes = compute(partitions, from, mid, mapper, reducer);
+        R rightRes = compute(partitions, mid, to, mapper, reducer);
+
+        return reducer.apply(leftRes, rightRes);
+    }
+}
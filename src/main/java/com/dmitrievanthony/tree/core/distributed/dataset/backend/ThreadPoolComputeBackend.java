@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dmitrievanthony.tree.core.distributed.dataset.backend;
+
+import com.dmitrievanthony.tree.core.distributed.dataset.Partition;
+import com.dmitrievanthony.tree.core.distributed.dataset.SerializableBiFunction;
+import com.dmitrievanthony.tree.core.distributed.dataset.SerializableFunction;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Compute backend which processes partitions in parallel using a fork-join pool. Results are reduced using a balanced
+ * binary tree of {@code reducer} calls over the fixed partition order, so the result is the same as the result of
+ * {@link SequentialComputeBackend}.
+ */
+public class ThreadPoolComputeBackend implements ComputeBackend {
+    /** Fork-join pool. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a new instance of thread pool compute backend which uses common fork-join pool.
+     */
+    public ThreadPoolComputeBackend() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new instance of thread pool compute backend.
+     *
+     * @param pool Fork-join pool.
+     */
+    public ThreadPoolComputeBackend(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** {@inheritDoc} */
+    @Override public <R> R compute(Partition[] partitions, SerializableFunction<Partition, R> mapper,
+        SerializableBiFunction<R, R, R> reducer) {
+        if (partitions.length == 0)
+            return null;
+
+        return pool.invoke(new ComputeTask<>(partitions, mapper, reducer, 0, partitions.length));
+    }
+
+    /**
+     * Fork-join task which maps partitions in the specified range and reduces results as a balanced binary tree.
+     *
+     * @param <R> Type of return value.
+     */
+    private static class ComputeTask<R> extends RecursiveTask<R> {
+        /** */
+        private static final long serialVersionUID = -4021476436291406223L;
+
+        /** Partitions. */
+        private final Partition[] partitions;
+
+        /** Mapper function applied on every partition. */
+        private final Function<Partition, R> mapper;
+
+        /** Reducer used to reduce results from different partitions. */
+        private final BiFunction<R, R, R> reducer;
+
+        /** Index of the first partition (inclusive). */
+        private final int from;
+
+        /** Index of the last partition (exclusive). */
+        private final int to;
+
+        /**
+         * Constructs a new instance of compute task.
+         *
+         * @param partitions Partitions.
+         * @param mapper Mapper function applied on every partition.
+         * @param reducer Reducer used to reduce results from different partitions.
+         * @param from Index of the first partition (inclusive).
+         * @param to Index of the last partition (exclusive).
+         */
+        ComputeTask(Partition[] partitions, Function<Partition, R> mapper, BiFunction<R, R, R> reducer, int from,
+            int to) {
+            this.partitions = partitions;
+            this.mapper = mapper;
+            this.reducer = reducer;
+            this.from = from;
+            this.to = to;
+        }
+
+        /** {@inheritDoc} */
+        @Override protected R compute() {
+            if (to - from == 1)
+                return mapper.apply(partitions[from]);
+
+            int mid = (from + to) >>> 1;
+
+            ComputeTask<R> left = new ComputeTask<>(partitions, mapper, reducer, from, mid);
+            ComputeTask<R> right = new ComputeTask<>(partitions, mapper, reducer, mid, to);
+
+            left.fork();
+            R rightRes = right.compute();
+            R leftRes = left.join();
+
+            return reducer.apply(leftRes, rightRes);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed.histogram;
+
+import com.dmitrievanthony.tree.core.distributed.dataset.Partition;
+import com.dmitrievanthony.tree.utils.sort.DoubleSort;
+import java.io.Serializable;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+/**
+ * Feature bins used to bucket values of every column. Bin {@code b} of a column contains values {@code v} such that
+ * {@code bounds[b - 1] < v <= bounds[b]}, the last bin contains all values greater than the last bound. Bounds are
+ * values seen in the data, so they can be used as thresholds of decision tree nodes as is.
+ */
+public class FeatureBins implements Serializable {
+    /** */
+    private static final long serialVersionUID = -546933531653454996L;
+
+    /** Ascendingly sorted upper bounds of bins of every column. */
+    private final double[][] bounds;
+
+    /**
+     * Constructs a new instance of feature bins.
+     *
+     * @param bounds Ascendingly sorted upper bounds of bins of every column.
+     */
+    public FeatureBins(double[][] bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * Returns bin of the given value.
+     *
+     * @param col Column.
+     * @param val Value.
+     * @return Bin.
+     */
+    public int bin(int col, double val) {
+        double[] colBounds = bounds[col];
+
+        int from = 0, to = colBounds.length;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (colBounds[mid] < val)
+                from = mid + 1;
+            else
+                to = mid;
+        }
+
+        return from;
+    }
+
+    /**
+     * Returns upper bound of the given bin.
+     *
+     * @param col Column.
+     * @param bin Bin.
+     * @return Upper bound of the bin ({@code +Infinity} for the last bin).
+     */
+    public double getUpperBound(int col, int bin) {
+        return bin < bounds[col].length ? bounds[col][bin] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns number of bins of the given column.
+     *
+     * @param col Column.
+     * @return Number of bins.
+     */
+    public int getBinsCnt(int col) {
+        return bounds[col].length + 1;
+    }
+
+    /** */
+    public int getColumnsCnt() {
+        return bounds.length;
+    }
+
+    /**
+     * Calculates candidate bounds of bins on a single partition. If a column has less than {@code maxBins} distinct
+     * values all of them are used as bounds, otherwise bounds are selected as quantiles. Bounds of a streamed partition
+     * are calculated on every chunk and merged. Columns are sorted one by one in a temporary array, so presorted
+     * indices of the partition are neither used nor cached.
+     *
+     * @param part Partition.
+     * @param maxBins Max number of bins.
+     * @return Candidate bounds of bins of every column ({@code null} if partition is empty).
+     */
+    public static double[][] calculateBounds(Partition part, int maxBins) {
+        if (part.getRowsCnt() == 0)
+            return null;
+
+        if (part.isStreamed()) {
+            double[][] res = null;
+
+            for (Partition chunk : part.getChunks())
+                res = mergeBounds(res, calculateBounds(chunk, maxBins), maxBins);
+
+            return res;
+        }
+
+        double[][] res = new double[part.getColumnsCnt()][];
+        double[] sorted = new double[part.getRowsCnt()];
+
+        for (int col = 0; col < res.length; col++) {
+            DoubleBuffer column = part.getColumn(col);
+
+            for (int i = 0; i < sorted.length; i++)
+                sorted[i] = column.get(i);
+
+            DoubleSort.sort(sorted);
+
+            res[col] = selectBounds(sorted, maxBins);
+        }
+
+        return res;
+    }
+
+    /**
+     * Merges candidate bounds of bins calculated on two parts of a dataset.
+     *
+     * @param a First candidate bounds of bins of every column.
+     * @param b Second candidate bounds of bins of every column.
+     * @param maxBins Max number of bins.
+     * @return Merged candidate bounds of bins of every column.
+     */
+    public static double[][] mergeBounds(double[][] a, double[][] b, int maxBins) {
+        if (a == null)
+            return b;
+        else if (b == null)
+            return a;
+        else {
+            double[][] res = new double[a.length][];
+
+            for (int col = 0; col < res.length; col++) {
+                double[] merged = Arrays.copyOf(a[col], a[col].length + b[col].length);
+                System.arraycopy(b[col], 0, merged, a[col].length, b[col].length);
+                Arrays.sort(merged);
+
+                res[col] = selectBounds(merged, maxBins);
+            }
+
+            return res;
+        }
+    }
+
+    /**
+     * Selects at most {@code maxBins - 1} distinct bounds from the given sorted values.
+     *
+     * @param sorted Ascendingly sorted values.
+     * @param maxBins Max number of bins.
+     * @return Selected bounds.
+     */
+    private static double[] selectBounds(double[] sorted, int maxBins) {
+        int distinctCnt = 0;
+        for (int i = 0; i < sorted.length; i++)
+            if (i == 0 || sorted[i] != sorted[i - 1])
+                distinctCnt++;
+
+        double[] res = new double[Math.min(distinctCnt, maxBins - 1)];
+        int ptr = 0;
+
+        if (distinctCnt <= maxBins - 1) {
+            for (int i = 0; i < sorted.length; i++)
+                if (i == 0 || sorted[i] != sorted[i - 1])
+                    res[ptr++] = sorted[i];
+        }
+        else {
+            for (int i = 1; i < maxBins; i++) {
+                double bound = sorted[(int)((long)i * sorted.length / maxBins) - 1];
+                if (ptr == 0 || bound != res[ptr - 1])
+                    res[ptr++] = bound;
+            }
+        }
+
+        return Arrays.copyOf(res, ptr);
+    }
+}
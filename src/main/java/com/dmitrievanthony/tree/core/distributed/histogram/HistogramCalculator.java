@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed.histogram;
+
+import com.dmitrievanthony.tree.core.distributed.criteria.ImpurityMeasure;
+import com.dmitrievanthony.tree.core.distributed.criteria.ImpurityMeasureCalculator;
+import com.dmitrievanthony.tree.core.distributed.criteria.PrimitiveStepFunction;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Histogram calculator which keeps statistics of rows of a node in fixed-size per-bin buffers (one buffer for every
+ * column). Histograms of different partitions are merged by element-wise addition, so their size depends on number
+ * of bins only and not on number of rows.
+ *
+ * @param <T> Type of impurity measure.
+ */
+public class HistogramCalculator<T extends ImpurityMeasure<T>> implements Serializable {
+    /** */
+    private static final long serialVersionUID = -4235865297922964194L;
+
+    /** Impurity measure calculator. */
+    private final ImpurityMeasureCalculator<T> impurityCalc;
+
+    /** Feature bins. */
+    private final FeatureBins bins;
+
+    /**
+     * Constructs a new instance of histogram calculator.
+     *
+     * @param impurityCalc Impurity measure calculator.
+     * @param bins Feature bins.
+     */
+    public HistogramCalculator(ImpurityMeasureCalculator<T> impurityCalc, FeatureBins bins) {
+        this.impurityCalc = impurityCalc;
+        this.bins = bins;
+    }
+
+    /**
+     * Creates empty histograms for all columns.
+     *
+     * @return Histograms for all columns.
+     */
+    public double[][] createHistograms() {
+        int statsSize = impurityCalc.getStatisticsSize();
+
+        double[][] res = new double[bins.getColumnsCnt()][];
+        for (int col = 0; col < res.length; col++)
+            res[col] = new double[bins.getBinsCnt(col) * statsSize];
+
+        return res;
+    }
+
+    /**
+     * Adds a value of a row into histogram of the specified column.
+     *
+     * @param hist Histograms for all columns.
+     * @param col Column.
+     * @param val Value of the row in the column.
+     * @param label Label of the row.
+     */
+    public void add(double[][] hist, int col, double val, double label) {
+        impurityCalc.addStatistics(hist[col], bins.bin(col, val) * impurityCalc.getStatisticsSize(), label);
+    }
+
+    /**
+     * Merges two histograms by adding the second one to the first one.
+     *
+     * @param a First histograms for all columns (updated in place).
+     * @param b Second histograms for all columns.
+     * @return Merged histograms.
+     */
+    public static double[][] merge(double[][] a, double[][] b) {
+        if (a == null)
+            return b;
+        else if (b == null)
+            return a;
+        else {
+            for (int col = 0; col < a.length; col++)
+                for (int i = 0; i < a[col].length; i++)
+                    a[col][i] += b[col][i];
+
+            return a;
+        }
+    }
+
+    /**
+     * Converts histograms into step functions. Every step of a function corresponds to a non-empty bin and its argument
+     * is the upper bound of the bin, so the argument is the threshold of the split.
+     *
+     * @param hist Histograms for all columns.
+     * @return Step functions for all columns.
+     */
+    public PrimitiveStepFunction[] toStepFunctions(double[][] hist) {
+        PrimitiveStepFunction[] res = new PrimitiveStepFunction[hist.length];
+
+        for (int col = 0; col < res.length; col++)
+            res[col] = toStepFunction(hist[col], col);
+
+        return res;
+    }
+
+    /**
+     * Converts histogram of a single column into step function.
+     *
+     * @param hist Histogram.
+     * @param col Column.
+     * @return Step function.
+     */
+    private PrimitiveStepFunction toStepFunction(double[] hist, int col) {
+        int statsSize = impurityCalc.getStatisticsSize();
+        int binsCnt = bins.getBinsCnt(col);
+
+        double[] x = new double[binsCnt + 1];
+        double[] left = new double[(binsCnt + 1) * statsSize];
+
+        int step = 0;
+        x[step] = Double.NEGATIVE_INFINITY;
+
+        for (int bin = 0; bin < binsCnt; bin++) {
+            boolean empty = true;
+            for (int i = 0; i < statsSize; i++)
+                empty &= hist[bin * statsSize + i] == 0;
+
+            if (empty)
+                continue;
+
+            step++;
+            x[step] = bins.getUpperBound(col, bin);
+
+            for (int i = 0; i < statsSize; i++)
+                left[step * statsSize + i] = left[(step - 1) * statsSize + i] + hist[bin * statsSize + i];
+        }
+
+        double[] total = Arrays.copyOfRange(left, step * statsSize, (step + 1) * statsSize);
+
+        return new PrimitiveStepFunction(
+            Arrays.copyOf(x, step + 1),
+            Arrays.copyOf(left, (step + 1) * statsSize),
+            total
+        );
+    }
+}
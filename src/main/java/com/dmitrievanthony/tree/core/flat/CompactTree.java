@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.flat;
+
+import com.dmitrievanthony.tree.core.Node;
+
+/**
+ * Compact decision tree that packs every node into two {@code int} values (8 bytes), so trees of thousands of nodes
+ * stay in L1/L2 cache. Nodes are stored in depth-first order, "else" child of a conditional node always immediately
+ * follows the node:
+ * <ul>
+ *     <li>conditional node: {@code float} threshold (as raw bits) and a word containing column in the lower 16 bits
+ *     and relative offset of "then" child in the upper 16 bits;</li>
+ *     <li>leaf: index of leaf value and a word containing {@link #LEAF} in the lower 16 bits.</li>
+ * </ul>
+ * Thresholds are rounded down to the closest {@code float}, so predictions are the same as predictions of the original
+ * tree for all features representable as {@code float}. Leaf values are kept as is.
+ */
+public class CompactTree implements Node {
+    /** Column value that marks a leaf. */
+    public static final int LEAF = 0xFFFF;
+
+    /** Packed nodes (two {@code int} values per node). */
+    private final int[] nodes;
+
+    /** Values of leaves. */
+    private final double[] leafValue;
+
+    /**
+     * Constructs a new instance of compact tree.
+     *
+     * @param nodes Packed nodes (two {@code int} values per node).
+     * @param leafValue Values of leaves.
+     */
+    public CompactTree(int[] nodes, double[] leafValue) {
+        if (nodes.length == 0 || nodes.length % 2 != 0)
+            throw new IllegalArgumentException("Packed nodes array has wrong size: " + nodes.length);
+
+        this.nodes = nodes;
+        this.leafValue = leafValue;
+    }
+
+    /** {@inheritDoc} */
+    @Override public double predict(double[] features) {
+        int node = 0;
+
+        while (true) {
+            int word = nodes[2 * node + 1];
+            int col = word & LEAF;
+
+            if (col == LEAF)
+                return leafValue[nodes[2 * node]];
+
+            node += features[col] > Float.intBitsToFloat(nodes[2 * node]) ? word >>> 16 : 1;
+        }
+    }
+
+    /** */
+    public int[] getNodes() {
+        return nodes;
+    }
+
+    /** */
+    public double[] getLeafValue() {
+        return leafValue;
+    }
+
+    /** */
+    public int getNodesCnt() {
+        return nodes.length / 2;
+    }
+
+    /**
+     * Returns size of packed nodes and leaf values in bytes.
+     *
+     * @return Size in bytes.
+     */
+    public long getSizeInBytes() {
+        return (long)nodes.length * Integer.BYTES + (long)leafValue.length * Double.BYTES;
+    }
+}
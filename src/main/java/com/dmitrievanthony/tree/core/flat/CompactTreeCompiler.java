@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.flat;
+
+import com.dmitrievanthony.tree.core.ConditionalNode;
+import com.dmitrievanthony.tree.core.LeafNode;
+import com.dmitrievanthony.tree.core.Node;
+import java.util.Arrays;
+
+/**
+ * Compiler that transforms a decision tree built of {@link ConditionalNode} and {@link LeafNode} objects into a
+ * {@link CompactTree}.
+ */
+public class CompactTreeCompiler {
+    /** Max relative offset of "then" child that fits into a packed node. */
+    private static final int MAX_OFFSET = 0xFFFF;
+
+    /**
+     * Compiles the given decision tree.
+     *
+     * @param node Root of the decision tree.
+     * @return Compact tree.
+     * @throws IllegalArgumentException If the tree uses a column greater than {@code 65534} or "else" subtree of
+     * some node contains more than {@code 65534} nodes.
+     */
+    public static CompactTree compile(Node node) {
+        Builder builder = new Builder();
+        builder.add(node);
+
+        return new CompactTree(
+            Arrays.copyOf(builder.nodes, 2 * builder.nodesCnt),
+            Arrays.copyOf(builder.leafValue, builder.leavesCnt)
+        );
+    }
+
+    /**
+     * Returns the greatest {@code float} that is less than or equal to the given value. For every {@code float}
+     * {@code x} the condition {@code x > threshold} is equivalent to {@code x > roundDown(threshold)}.
+     *
+     * @param val Value.
+     * @return Rounded value.
+     */
+    static float roundDown(double val) {
+        float res = (float)val;
+
+        return res > val ? Math.nextDown(res) : res;
+    }
+
+    /**
+     * Builder of packed nodes.
+     */
+    private static class Builder {
+        /** Packed nodes. */
+        private int[] nodes = new int[32];
+
+        /** Number of packed nodes. */
+        private int nodesCnt;
+
+        /** Values of leaves. */
+        private double[] leafValue = new double[16];
+
+        /** Number of leaves. */
+        private int leavesCnt;
+
+        /**
+         * Adds the given subtree in depth-first order.
+         *
+         * @param node Root of the subtree.
+         */
+        void add(Node node) {
+            int pos = nodesCnt++;
+
+            if (2 * nodesCnt > nodes.length)
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+
+            if (node instanceof LeafNode) {
+                if (leavesCnt == leafValue.length)
+                    leafValue = Arrays.copyOf(leafValue, leafValue.length * 2);
+
+                leafValue[leavesCnt] = ((LeafNode)node).getVal();
+
+                nodes[2 * pos] = leavesCnt++;
+                nodes[2 * pos + 1] = CompactTree.LEAF;
+            }
+            else if (node instanceof ConditionalNode) {
+                ConditionalNode cn = (ConditionalNode)node;
+
+                if (cn.getCol() < 0 || cn.getCol() >= CompactTree.LEAF)
+                    throw new IllegalArgumentException("Column doesn't fit into compact tree: " + cn.getCol());
+
+                add(cn.getElseNode());
+
+                int thenOff = nodesCnt - pos;
+                if (thenOff > MAX_OFFSET)
+                    throw new IllegalArgumentException("Subtree is too large for compact tree: " + (thenOff - 1));
+
+                add(cn.getThenNode());
+
+                nodes[2 * pos] = Float.floatToRawIntBits(roundDown(cn.getThreshold()));
+                nodes[2 * pos + 1] = thenOff << 16 | cn.getCol();
+            }
+            else
+                throw new IllegalArgumentException("Unknown node type: " + node.getClass().getName());
+        }
+    }
+}
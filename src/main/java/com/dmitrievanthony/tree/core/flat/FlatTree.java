@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.flat;
+
+import com.dmitrievanthony.tree.core.Node;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Decision tree encoded into flat arrays. Every conditional node is represented by an index {@code i} into the
+ * parallel arrays {@code col} and {@code threshold}, its children are stored in {@code child[2 * i]} ("else" child)
+ * and {@code child[2 * i + 1]} ("then" child). A negative child {@code c} refers to the leaf {@code ~c} whose value is
+ * stored in {@code leafValue}. Prediction is an iterative loop over these arrays that doesn't allocate memory.
+ *
+ * Batch prediction moves a block of rows through the tree together, level by level. It makes independent memory
+ * accesses of different rows overlap instead of waiting for every node of a single row in turn.
+ */
+public class FlatTree implements Node {
+    /** Number of rows moved through the tree together. */
+    private static final int BLOCK_SIZE = 64;
+
+    /** Number of rows below which a batch is not split between threads. */
+    private static final int PARALLEL_THRESHOLD = 64 * BLOCK_SIZE;
+
+    /** Root of the tree (conditional node index or bitwise complement of leaf index). */
+    private final int root;
+
+    /** Column of the value to be tested by conditional node. */
+    private final int[] col;
+
+    /** Threshold of conditional node. */
+    private final double[] threshold;
+
+    /** Children of conditional node ("else" child is followed by "then" child). */
+    private final int[] child;
+
+    /** Values of leaves. */
+    private final double[] leafValue;
+
+    /**
+     * Constructs a new instance of flat tree.
+     *
+     * @param root Root of the tree (conditional node index or bitwise complement of leaf index).
+     * @param col Column of the value to be tested by conditional node.
+     * @param threshold Threshold of conditional node.
+     * @param child Children of conditional node ("else" child is followed by "then" child).
+     * @param leafValue Values of leaves.
+     */
+    public FlatTree(int root, int[] col, double[] threshold, int[] child, double[] leafValue) {
+        if (col.length != threshold.length || child.length != 2 * col.length)
+            throw new IllegalArgumentException("Sizes of node arrays don't match");
+
+        this.root = root;
+        this.col = col;
+        this.threshold = threshold;
+        this.child = child;
+        this.leafValue = leafValue;
+    }
+
+    /** {@inheritDoc} */
+    @Override public double predict(double[] features) {
+        int node = root;
+
+        while (node >= 0)
+            node = child[2 * node + (features[col[node]] > threshold[node] ? 1 : 0)];
+
+        return leafValue[~node];
+    }
+
+    /** {@inheritDoc} */
+    @Override public void predict(double[][] rows, double[] out) {
+        checkOutput(rows.length, out);
+
+        predictRows(rows, out, 0, rows.length);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void predictColumns(double[][] columns, double[] out) {
+        predictColumns(columns, out, 0, out.length);
+    }
+
+    /**
+     * Makes predictions for a batch of objects specified by rows of features splitting the batch between threads of
+     * the given pool.
+     *
+     * @param rows Features of every object.
+     * @param out Array the predictions are written into (has to have at least {@code rows.length} elements).
+     * @param pool Pool to be used to make predictions.
+     */
+    public void predict(double[][] rows, double[] out, ForkJoinPool pool) {
+        checkOutput(rows.length, out);
+
+        pool.invoke(new PredictTask(rows, null, out, 0, rows.length));
+    }
+
+    /**
+     * Makes predictions for a batch of objects specified by columns of features splitting the batch between threads
+     * of the given pool. Number of objects is defined by length of the output array.
+     *
+     * @param columns Values of every feature.
+     * @param out Array the predictions are written into.
+     * @param pool Pool to be used to make predictions.
+     */
+    public void predictColumns(double[][] columns, double[] out, ForkJoinPool pool) {
+        pool.invoke(new PredictTask(null, columns, out, 0, out.length));
+    }
+
+    /**
+     * Makes predictions for the given range of rows block by block.
+     *
+     * @param rows Features of every object.
+     * @param out Array the predictions are written into.
+     * @param from Index of the first row (inclusive).
+     * @param to Index of the last row (exclusive).
+     */
+    private void predictRows(double[][] rows, double[] out, int from, int to) {
+        int[] nodes = new int[BLOCK_SIZE];
+
+        for (int blockFrom = from; blockFrom < to; blockFrom += BLOCK_SIZE) {
+            int cnt = Math.min(BLOCK_SIZE, to - blockFrom);
+
+            boolean active = init(nodes, cnt);
+
+            while (active) {
+                active = false;
+
+                for (int i = 0; i < cnt; i++) {
+                    int node = nodes[i];
+
+                    if (node >= 0) {
+                        node = child[2 * node + (rows[blockFrom + i][col[node]] > threshold[node] ? 1 : 0)];
+                        nodes[i] = node;
+                        active |= node >= 0;
+                    }
+                }
+            }
+
+            for (int i = 0; i < cnt; i++)
+                out[blockFrom + i] = leafValue[~nodes[i]];
+        }
+    }
+
+    /**
+     * Makes predictions for the given range of rows specified by columns block by block.
+     *
+     * @param columns Values of every feature.
+     * @param out Array the predictions are written into.
+     * @param from Index of the first row (inclusive).
+     * @param to Index of the last row (exclusive).
+     */
+    private void predictColumns(double[][] columns, double[] out, int from, int to) {
+        int[] nodes = new int[BLOCK_SIZE];
+
+        for (int blockFrom = from; blockFrom < to; blockFrom += BLOCK_SIZE) {
+            int cnt = Math.min(BLOCK_SIZE, to - blockFrom);
+
+            boolean active = init(nodes, cnt);
+
+            while (active) {
+                active = false;
+
+                for (int i = 0; i < cnt; i++) {
+                    int node = nodes[i];
+
+                    if (node >= 0) {
+                        node = child[2 * node + (columns[col[node]][blockFrom + i] > threshold[node] ? 1 : 0)];
+                        nodes[i] = node;
+                        active |= node >= 0;
+                    }
+                }
+            }
+
+            for (int i = 0; i < cnt; i++)
+                out[blockFrom + i] = leafValue[~nodes[i]];
+        }
+    }
+
+    /**
+     * Places all rows of a block into the root.
+     *
+     * @param nodes Current nodes of rows of the block.
+     * @param cnt Number of rows in the block.
+     * @return {@code true} if the block has to be moved further (root is a conditional node).
+     */
+    private boolean init(int[] nodes, int cnt) {
+        for (int i = 0; i < cnt; i++)
+            nodes[i] = root;
+
+        return root >= 0;
+    }
+
+    /**
+     * Checks that output array is big enough.
+     *
+     * @param rowsCnt Number of rows.
+     * @param out Output array.
+     */
+    private static void checkOutput(int rowsCnt, double[] out) {
+        if (out.length < rowsCnt)
+            throw new IllegalArgumentException("Output array is too small [rows=" + rowsCnt +
+                ", out=" + out.length + "]");
+    }
+
+    /** */
+    public int getRoot() {
+        return root;
+    }
+
+    /** */
+    public int[] getCol() {
+        return col;
+    }
+
+    /** */
+    public double[] getThreshold() {
+        return threshold;
+    }
+
+    /** */
+    public int[] getChild() {
+        return child;
+    }
+
+    /** */
+    public double[] getLeafValue() {
+        return leafValue;
+    }
+
+    /** */
+    public int getNodesCnt() {
+        return col.length;
+    }
+
+    /** */
+    public int getLeavesCnt() {
+        return leafValue.length;
+    }
+
+    /**
+     * Task that makes predictions for a range of rows splitting it in halves until it's small enough.
+     */
+    private class PredictTask extends RecursiveAction {
+        /** */
+        private static final long serialVersionUID = 2946392150726871284L;
+
+        /** Features of every object ({@code null} if features are specified by columns). */
+        private final double[][] rows;
+
+        /** Values of every feature ({@code null} if features are specified by rows). */
+        private final double[][] columns;
+
+        /** Array the predictions are written into. */
+        private final double[] out;
+
+        /** Index of the first row (inclusive). */
+        private final int from;
+
+        /** Index of the last row (exclusive). */
+        private final int to;
+
+        /**
+         * Constructs a new instance of predict task.
+         *
+         * @param rows Features of every object ({@code null} if features are specified by columns).
+         * @param columns Values of every feature ({@code null} if features are specified by rows).
+         * @param out Array the predictions are written into.
+         * @param from Index of the first row (inclusive).
+         * @param to Index of the last row (exclusive).
+         */
+        PredictTask(double[][] rows, double[][] columns, double[] out, int from, int to) {
+            this.rows = rows;
+            this.columns = columns;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        /** {@inheritDoc} */
+        @Override protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                if (rows != null)
+                    predictRows(rows, out, from, to);
+                else
+                    predictColumns(columns, out, from, to);
+            }
+            else {
+                // Split by whole blocks so that every block is processed by a single task.
+                int mid = from + ((to - from) / BLOCK_SIZE / 2) * BLOCK_SIZE;
+
+                PredictTask left = new PredictTask(rows, columns, out, from, mid);
+                PredictTask right = new PredictTask(rows, columns, out, mid, to);
+
+                left.fork();
+                right.compute();
+                left.join();
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.flat;
+
+import com.dmitrievanthony.tree.core.ConditionalNode;
+import com.dmitrievanthony.tree.core.LeafNode;
+import com.dmitrievanthony.tree.core.Node;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Compiler that transforms a decision tree built of {@link ConditionalNode} and {@link LeafNode} objects into a
+ * {@link FlatTree}.
+ */
+public class FlatTreeCompiler {
+    /**
+     * Order of conditional nodes in the flat arrays.
+     */
+    public enum Layout {
+        /** Nodes are stored level by level, so the top levels visited by every prediction are close to each other. */
+        BREADTH_FIRST,
+
+        /**
+         * Nodes are stored in van Emde Boas order: the top half of the tree is stored first, then every bottom
+         * subtree, recursively. Every path is spread over a small number of contiguous blocks whatever the cache line
+         * size is.
+         */
+        VAN_EMDE_BOAS
+    }
+
+    /**
+     * Compiles the given decision tree using breadth-first layout.
+     *
+     * @param node Root of the decision tree.
+     * @return Flat tree.
+     */
+    public static FlatTree compile(Node node) {
+        return compile(node, Layout.BREADTH_FIRST);
+    }
+
+    /**
+     * Compiles the given decision tree.
+     *
+     * @param node Root of the decision tree.
+     * @param layout Order of conditional nodes in the flat arrays.
+     * @return Flat tree.
+     */
+    public static FlatTree compile(Node node, Layout layout) {
+        List<ConditionalNode> order = new ArrayList<>();
+
+        switch (layout) {
+            case BREADTH_FIRST:
+                breadthFirstOrder(node, order);
+                break;
+            case VAN_EMDE_BOAS:
+                vanEmdeBoasOrder(node, height(node), order);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown layout: " + layout);
+        }
+
+        Map<Node, Integer> idx = new IdentityHashMap<>();
+        for (int i = 0; i < order.size(); i++)
+            idx.put(order.get(i), i);
+
+        int[] col = new int[order.size()];
+        double[] threshold = new double[order.size()];
+        int[] child = new int[2 * order.size()];
+        List<Double> leafValues = new ArrayList<>();
+
+        for (int i = 0; i < order.size(); i++) {
+            ConditionalNode cn = order.get(i);
+
+            col[i] = cn.getCol();
+            threshold[i] = cn.getThreshold();
+            child[2 * i] = reference(cn.getElseNode(), idx, leafValues);
+            child[2 * i + 1] = reference(cn.getThenNode(), idx, leafValues);
+        }
+
+        int root = reference(node, idx, leafValues);
+
+        double[] leafValue = new double[leafValues.size()];
+        for (int i = 0; i < leafValue.length; i++)
+            leafValue[i] = leafValues.get(i);
+
+        return new FlatTree(root, col, threshold, child, leafValue);
+    }
+
+    /**
+     * Returns reference to the given node in the flat arrays, allocates a new leaf if the node is a leaf.
+     *
+     * @param node Node.
+     * @param idx Index of conditional nodes.
+     * @param leafValues Values of allocated leaves.
+     * @return Conditional node index or bitwise complement of leaf index.
+     */
+    private static int reference(Node node, Map<Node, Integer> idx, List<Double> leafValues) {
+        if (node instanceof LeafNode) {
+            leafValues.add(((LeafNode)node).getVal());
+            return ~(leafValues.size() - 1);
+        }
+
+        return idx.get(node);
+    }
+
+    /**
+     * Collects conditional nodes of the given tree in breadth-first order.
+     *
+     * @param node Root of the decision tree.
+     * @param res Resulting list of conditional nodes.
+     */
+    private static void breadthFirstOrder(Node node, List<ConditionalNode> res) {
+        Queue<Node> queue = new ArrayDeque<>();
+        queue.add(node);
+
+        while (!queue.isEmpty()) {
+            Node n = queue.poll();
+
+            if (n instanceof ConditionalNode) {
+                ConditionalNode cn = (ConditionalNode)n;
+                res.add(cn);
+                queue.add(cn.getElseNode());
+                queue.add(cn.getThenNode());
+            }
+            else if (!(n instanceof LeafNode))
+                throw new IllegalArgumentException("Unknown node type: " + n.getClass().getName());
+        }
+    }
+
+    /**
+     * Collects conditional nodes of the given tree in van Emde Boas order.
+     *
+     * @param node Root of the subtree.
+     * @param height Number of levels of conditional nodes to be collected.
+     * @param res Resulting list of conditional nodes.
+     */
+    private static void vanEmdeBoasOrder(Node node, int height, List<ConditionalNode> res) {
+        if (height == 0 || !(node instanceof ConditionalNode))
+            return;
+
+        if (height == 1) {
+            res.add((ConditionalNode)node);
+            return;
+        }
+
+        int topHeight = height / 2;
+
+        vanEmdeBoasOrder(node, topHeight, res);
+
+        List<Node> bottom = new ArrayList<>();
+        collectLevel(node, topHeight, bottom);
+
+        for (Node n : bottom)
+            vanEmdeBoasOrder(n, height - topHeight, res);
+    }
+
+    /**
+     * Collects nodes of the given level of the subtree.
+     *
+     * @param node Root of the subtree.
+     * @param level Level (root has level {@code 0}).
+     * @param res Resulting list of nodes.
+     */
+    private static void collectLevel(Node node, int level, List<Node> res) {
+        if (level == 0)
+            res.add(node);
+        else if (node instanceof ConditionalNode) {
+            ConditionalNode cn = (ConditionalNode)node;
+            collectLevel(cn.getElseNode(), level - 1, res);
+            collectLevel(cn.getThenNode(), level - 1, res);
+        }
+    }
+
+    /**
+     * Calculates number of levels of conditional nodes of the given tree.
+     *
+     * @param node Root of the decision tree.
+     * @return Number of levels of conditional nodes.
+     */
+    private static int height(Node node) {
+        if (node instanceof ConditionalNode) {
+            ConditionalNode cn = (ConditionalNode)node;
+            return 1 + Math.max(height(cn.getElseNode()), height(cn.getThenNode()));
+        }
+        else if (node instanceof LeafNode)
+            return 0;
+
+        throw new IllegalArgumentException("Unknown node type: " + node.getClass().getName());
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.flat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary format of {@link FlatTree} models. A model consists of a header and the flat node arrays:
+ * <ul>
+ *     <li>header: magic ({@code int}), version ({@code int}), number of conditional nodes ({@code int}), number of
+ *     leaves ({@code int}), root ({@code int}) and padding ({@code int});</li>
+ *     <li>thresholds of conditional nodes ({@code double} each);</li>
+ *     <li>values of leaves ({@code double} each);</li>
+ *     <li>columns of conditional nodes ({@code int} each);</li>
+ *     <li>children of conditional nodes ({@code int} each, two per node).</li>
+ * </ul>
+ * All values are stored in {@link #BYTE_ORDER}. Conditional children of a node are stored after the node (it holds for
+ * all layouts of {@link FlatTreeCompiler}), so predictions always terminate. Several models can be written into a
+ * single buffer one after another.
+ * A model can be read into a {@link FlatTree} or mapped as a {@link MappedFlatTree} which makes predictions directly
+ * from the buffer without copying.
+ */
+public class FlatTreeFile {
+    /** Magic number of flat tree models. */
+    public static final int MAGIC = 0x46545245;
+
+    /** Version of flat tree model format. */
+    public static final int VERSION = 1;
+
+    /** Size of header in bytes. */
+    public static final int HEADER_SIZE = 24;
+
+    /** Byte order of all values. */
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Returns size of the given model in bytes.
+     *
+     * @param tree Flat tree.
+     * @return Size in bytes.
+     */
+    public static int size(FlatTree tree) {
+        return size(tree.getNodesCnt(), tree.getLeavesCnt());
+    }
+
+    /**
+     * Writes the given model into the buffer starting from its current position and advances the position.
+     *
+     * @param tree Flat tree.
+     * @param buf Buffer.
+     */
+    public static void write(FlatTree tree, ByteBuffer buf) {
+        ByteBuffer out = buf.duplicate().order(BYTE_ORDER);
+
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(tree.getNodesCnt());
+        out.putInt(tree.getLeavesCnt());
+        out.putInt(tree.getRoot());
+        out.putInt(0);
+
+        out.asDoubleBuffer().put(tree.getThreshold());
+        out.position(out.position() + tree.getNodesCnt() * Double.BYTES);
+
+        out.asDoubleBuffer().put(tree.getLeafValue());
+        out.position(out.position() + tree.getLeavesCnt() * Double.BYTES);
+
+        out.asIntBuffer().put(tree.getCol());
+        out.position(out.position() + tree.getNodesCnt() * Integer.BYTES);
+
+        out.asIntBuffer().put(tree.getChild());
+        out.position(out.position() + 2 * tree.getNodesCnt() * Integer.BYTES);
+
+        buf.position(out.position());
+    }
+
+    /**
+     * Writes the given model into a file. Existing file is truncated.
+     *
+     * @param tree Flat tree.
+     * @param file File.
+     * @throws IOException If file can't be written.
+     */
+    public static void write(FlatTree tree, Path file) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(size(tree));
+        write(tree, buf);
+        buf.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining())
+                channel.write(buf);
+        }
+    }
+
+    /**
+     * Reads a model from the buffer starting from its current position into heap arrays and advances the position.
+     *
+     * @param buf Buffer.
+     * @return Flat tree.
+     */
+    public static FlatTree read(ByteBuffer buf) {
+        MappedFlatTree mapped = wrap(buf);
+
+        int[] col = new int[mapped.getNodesCnt()];
+        double[] threshold = new double[mapped.getNodesCnt()];
+        int[] child = new int[2 * mapped.getNodesCnt()];
+        double[] leafValue = new double[mapped.getLeavesCnt()];
+
+        mapped.getCol().get(col);
+        mapped.getThreshold().get(threshold);
+        mapped.getChild().get(child);
+        mapped.getLeafValue().get(leafValue);
+
+        return new FlatTree(mapped.getRoot(), col, threshold, child, leafValue);
+    }
+
+    /**
+     * Reads a model from the file into heap arrays.
+     *
+     * @param file File.
+     * @return Flat tree.
+     * @throws IOException If file can't be read or has unsupported format.
+     */
+    public static FlatTree read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate((int)channel.size());
+
+            while (buf.hasRemaining())
+                if (channel.read(buf) < 0)
+                    throw new IOException("Unexpected end of model file: " + file);
+
+            buf.flip();
+
+            return read(buf);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException("Failed to read model file: " + file, e);
+        }
+    }
+
+    /**
+     * Maps the model file into memory. Predictions are made directly from the mapped file.
+     *
+     * @param file File.
+     * @return Mapped flat tree.
+     * @throws IOException If file can't be mapped or has unsupported format.
+     */
+    public static MappedFlatTree map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException("Failed to map model file: " + file, e);
+        }
+    }
+
+    /**
+     * Wraps a model stored in the buffer starting from its current position without copying and advances the
+     * position. References to nodes and leaves are validated, so a corrupted model is rejected instead of making
+     * predictions fail or never terminate.
+     *
+     * @param buf Buffer.
+     * @return Mapped flat tree.
+     * @throws IllegalArgumentException If buffer doesn't contain a valid model.
+     */
+    public static MappedFlatTree wrap(ByteBuffer buf) {
+        ByteBuffer in = buf.duplicate().order(BYTE_ORDER);
+
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC)
+            throw new IllegalArgumentException("Buffer doesn't contain a flat tree model");
+
+        int ver = in.getInt();
+        if (ver != VERSION)
+            throw new IllegalArgumentException("Unsupported flat tree model version: " + ver);
+
+        int nodesCnt = in.getInt();
+        int leavesCnt = in.getInt();
+        int root = in.getInt();
+        in.getInt();
+
+        if (nodesCnt < 0 || leavesCnt <= 0 || in.remaining() < size(nodesCnt, leavesCnt) - HEADER_SIZE)
+            throw new IllegalArgumentException("Flat tree model is corrupted [nodes=" + nodesCnt + ", leaves=" +
+                leavesCnt + ", remaining=" + in.remaining() + "]");
+
+        int leavesOff = nodesCnt * Double.BYTES;
+        int colOff = leavesOff + leavesCnt * Double.BYTES;
+        int childOff = colOff + nodesCnt * Integer.BYTES;
+
+        IntBuffer col = slice(in, colOff, nodesCnt * Integer.BYTES).asIntBuffer();
+        IntBuffer child = slice(in, childOff, 2 * nodesCnt * Integer.BYTES).asIntBuffer();
+
+        validate(root, col, child, nodesCnt, leavesCnt);
+
+        MappedFlatTree res = new MappedFlatTree(
+            root,
+            col,
+            slice(in, 0, nodesCnt * Double.BYTES).asDoubleBuffer(),
+            child,
+            slice(in, leavesOff, leavesCnt * Double.BYTES).asDoubleBuffer()
+        );
+
+        buf.position(in.position() + size(nodesCnt, leavesCnt) - HEADER_SIZE);
+
+        return res;
+    }
+
+    /**
+     * Validates references of a model: the root and children of every conditional node have to refer to existing
+     * nodes or leaves, a conditional child has to be stored after its parent, columns have to be non-negative.
+     *
+     * @param root Root of the tree (conditional node index or bitwise complement of leaf index).
+     * @param col Column of the value to be tested by conditional node.
+     * @param child Children of conditional node ("else" child is followed by "then" child).
+     * @param nodesCnt Number of conditional nodes.
+     * @param leavesCnt Number of leaves.
+     * @throws IllegalArgumentException If model is corrupted.
+     */
+    private static void validate(int root, IntBuffer col, IntBuffer child, int nodesCnt, int leavesCnt) {
+        if (!isValidReference(root, -1, nodesCnt, leavesCnt))
+            throw new IllegalArgumentException("Flat tree model is corrupted [root=" + root + "]");
+
+        for (int node = 0; node < nodesCnt; node++) {
+            if (col.get(node) < 0)
+                throw new IllegalArgumentException("Flat tree model is corrupted [node=" + node + ", col=" +
+                    col.get(node) + "]");
+
+            for (int i = 2 * node; i < 2 * node + 2; i++)
+                if (!isValidReference(child.get(i), node, nodesCnt, leavesCnt))
+                    throw new IllegalArgumentException("Flat tree model is corrupted [node=" + node + ", child=" +
+                        child.get(i) + "]");
+        }
+    }
+
+    /**
+     * Checks if the given reference refers to an existing leaf or to an existing conditional node stored after the
+     * parent.
+     *
+     * @param ref Reference (conditional node index or bitwise complement of leaf index).
+     * @param parent Index of the parent node ({@code -1} for the root).
+     * @param nodesCnt Number of conditional nodes.
+     * @param leavesCnt Number of leaves.
+     * @return {@code true} if the reference is valid.
+     */
+    private static boolean isValidReference(int ref, int parent, int nodesCnt, int leavesCnt) {
+        return ref >= 0 ? ref > parent && ref < nodesCnt : ~ref < leavesCnt;
+    }
+
+    /**
+     * Returns size of a model in bytes.
+     *
+     * @param nodesCnt Number of conditional nodes.
+     * @param leavesCnt Number of leaves.
+     * @return Size in bytes.
+     */
+    private static int size(int nodesCnt, int leavesCnt) {
+        return HEADER_SIZE + (nodesCnt + leavesCnt) * Double.BYTES + 3 * nodesCnt * Integer.BYTES;
+    }
+
+    /**
+     * Returns a slice of the buffer.
+     *
+     * @param buf Buffer.
+     * @param off Offset of the slice relatively to the current position of the buffer.
+     * @param size Size of the slice in bytes.
+     * @return Slice in {@link #BYTE_ORDER}.
+     */
+    private static ByteBuffer slice(ByteBuffer buf, int off, int size) {
+        ByteBuffer res = buf.duplicate();
+        res.position(buf.position() + off);
+        res.limit(buf.position() + off + size);
+
+        return res.slice().order(BYTE_ORDER);
+    }
+}
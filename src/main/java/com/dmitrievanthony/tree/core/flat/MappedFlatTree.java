@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.flat;
+
+import com.dmitrievanthony.tree.core.Node;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Decision tree encoded the same way as {@link FlatTree} but backed by buffers, so it can make predictions directly
+ * from a model file mapped into memory (see {@link FlatTreeFile#map(java.nio.file.Path)}).
+ */
+public class MappedFlatTree implements Node {
+    /** Root of the tree (conditional node index or bitwise complement of leaf index). */
+    private final int root;
+
+    /** Column of the value to be tested by conditional node. */
+    private final IntBuffer col;
+
+    /** Threshold of conditional node. */
+    private final DoubleBuffer threshold;
+
+    /** Children of conditional node ("else" child is followed by "then" child). */
+    private final IntBuffer child;
+
+    /** Values of leaves. */
+    private final DoubleBuffer leafValue;
+
+    /**
+     * Constructs a new instance of mapped flat tree.
+     *
+     * @param root Root of the tree (conditional node index or bitwise complement of leaf index).
+     * @param col Column of the value to be tested by conditional node.
+     * @param threshold Threshold of conditional node.
+     * @param child Children of conditional node ("else" child is followed by "then" child).
+     * @param leafValue Values of leaves.
+     */
+    public MappedFlatTree(int root, IntBuffer col, DoubleBuffer threshold, IntBuffer child, DoubleBuffer leafValue) {
+        if (col.remaining() != threshold.remaining() || child.remaining() != 2 * col.remaining())
+            throw new IllegalArgumentException("Sizes of node buffers don't match");
+
+        this.root = root;
+        this.col = col.slice();
+        this.threshold = threshold.slice();
+        this.child = child.slice();
+        this.leafValue = leafValue.slice();
+    }
+
+    /** {@inheritDoc} */
+    @Override public double predict(double[] features) {
+        int node = root;
+
+        while (node >= 0)
+            node = child.get(2 * node + (features[col.get(node)] > threshold.get(node) ? 1 : 0));
+
+        return leafValue.get(~node);
+    }
+
+    /** */
+    public int getRoot() {
+        return root;
+    }
+
+    /** */
+    public IntBuffer getCol() {
+        return col.duplicate();
+    }
+
+    /** */
+    public DoubleBuffer getThreshold() {
+        return threshold.duplicate();
+    }
+
+    /** */
+    public IntBuffer getChild() {
+        return child.duplicate();
+    }
+
+    /** */
+    public DoubleBuffer getLeafValue() {
+        return leafValue.duplicate();
+    }
+
+    /** */
+    public int getNodesCnt() {
+        return col.capacity();
+    }
+
+    /** */
+    public int getLeavesCnt() {
+        return leafValue.capacity();
+    }
+}
@@ -20,15 +20,26 @@ package com.dmitrievanthony.tree.core.local;
 import com.dmitrievanthony.tree.core.ConditionalNode;
 import com.dmitrievanthony.tree.core.LeafNode;
 import com.dmitrievanthony.tree.core.Node;
-import com.dmitrievanthony.tree.utils.Utils;
 import com.dmitrievanthony.tree.core.local.criteria.SplitPoint;
 import com.dmitrievanthony.tree.core.local.criteria.SplitCalculator;
+import com.dmitrievanthony.tree.utils.sort.DoubleSort;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Local decision tree trainer.
  */
 public abstract class LocalDecisionTree {
+    /** Min number of rows of a node which subtrees are built in parallel. */
+    private static final int PARALLEL_SUBTREES_THRESHOLD = 1024;
+
+    /** Min number of rows of a node which columns are processed in parallel. */
+    private static final int PARALLEL_COLUMNS_THRESHOLD = 16384;
+
     /** Split calculator. */
     private final SplitCalculator splitCalc;
 
@@ -38,6 +49,21 @@ public abstract class LocalDecisionTree {
     /** Min impurity decrease. */
     private final double minImpurityDecrease;
 
+    /**
+     * Presorting flag. If {@code true} every column is sorted once before training and rows of every node are kept as
+     * ranges of the sorted orders that are partitioned in place when the node is split, so features are neither sorted
+     * nor copied per node.
+     */
+    private final boolean presorting;
+
+    /**
+     * Fork-join pool used to build the tree in parallel ({@code null} if the tree is built sequentially). Subtrees of
+     * big nodes are built as separate tasks and columns of very big nodes are processed in parallel. Parallel training
+     * always uses presorted data and keeps a separate labels buffer for every column. The result doesn't depend on the
+     * pool.
+     */
+    private final ForkJoinPool pool;
+
     /**
      * Constructs a new instance of local decision tree trainer.
      *
@@ -46,9 +72,25 @@ public abstract class LocalDecisionTree {
      * @param minImpurityDecrease Min impurity decrease.
      */
     public LocalDecisionTree(SplitCalculator splitCalc, int maxDeep, double minImpurityDecrease) {
+        this(splitCalc, maxDeep, minImpurityDecrease, false, null);
+    }
+
+    /**
+     * Constructs a new instance of local decision tree trainer.
+     *
+     * @param splitCalc Split calculator.
+     * @param maxDeep Max tree deep.
+     * @param minImpurityDecrease Min impurity decrease.
+     * @param presorting Presorting flag.
+     * @param pool Fork-join pool ({@code null} if the tree has to be built sequentially).
+     */
+    public LocalDecisionTree(SplitCalculator splitCalc, int maxDeep, double minImpurityDecrease, boolean presorting,
+        ForkJoinPool pool) {
         this.splitCalc = splitCalc;
         this.maxDeep = maxDeep;
         this.minImpurityDecrease = minImpurityDecrease;
+        this.presorting = presorting;
+        this.pool = pool;
     }
 
     /**
@@ -59,7 +101,29 @@ public abstract class LocalDecisionTree {
      * @return Decision tree.
      */
     public Node fit(double[][] features, double[] labels) {
-        return split(features, labels, 0);
+        return fit(features, labels, splitCalc);
+    }
+
+    /**
+     * Builds a new tree trained on the specified features and labels using the given split calculator instead of the
+     * one passed to the constructor (for example, a calculator prepared for labels of this training only).
+     *
+     * @param features Features.
+     * @param labels Labels.
+     * @param splitCalc Split calculator.
+     * @return Decision tree.
+     */
+    Node fit(double[][] features, double[] labels, SplitCalculator splitCalc) {
+        if (pool != null) {
+            PresortedData data = new PresortedData(features, labels, true);
+
+            return pool.invoke(new SplitTask(data, splitCalc, 0, labels.length, 0));
+        }
+
+        if (presorting)
+            return split(new PresortedData(features, labels, false), splitCalc, 0, labels.length, 0);
+
+        return split(features, labels, splitCalc, 0, new SortBuffers(labels.length));
     }
 
     /**
@@ -67,10 +131,12 @@ public abstract class LocalDecisionTree {
      *
      * @param features Features.
      * @param labels Labels.
+     * @param splitCalc Split calculator.
      * @param deep Current decision tree deep.
+     * @param buf Buffers used to sort rows.
      * @return Decision tree node.
      */
-    private Node split(double[][] features, double[] labels, int deep) {
+    private Node split(double[][] features, double[] labels, SplitCalculator splitCalc, int deep, SortBuffers buf) {
         if (deep >= maxDeep)
             return createLeafNode(labels);
 
@@ -78,7 +144,7 @@ public abstract class LocalDecisionTree {
         SplitPoint bestSplitPnt = null;
 
         for (int col = 0; col < features[0].length; col++) {
-            Utils.quickSort(features, labels, col);
+            sort(features, labels, col, buf);
 
             SplitPoint splitPnt = splitCalc.findBestSplit(labels, minImpurityDecrease);
 
@@ -91,7 +157,7 @@ public abstract class LocalDecisionTree {
         if (bestSplitPnt == null)
             return createLeafNode(labels);
 
-        Utils.quickSort(features, labels, bestCol);
+        sort(features, labels, bestCol, buf);
 
         if (bestSplitPnt.getLeftSize() == 0)
             return createLeafNode(labels);
@@ -105,16 +171,368 @@ public abstract class LocalDecisionTree {
         return new ConditionalNode(
             bestCol,
             (leftFeatures[leftFeatures.length - 1][bestCol] + rightFeatures[0][bestCol]) / 2,
-            split(rightFeatures, rightLabels, deep + 1),
-            split(leftFeatures, leftLabels, deep + 1)
+            split(rightFeatures, rightLabels, splitCalc, deep + 1, buf),
+            split(leftFeatures, leftLabels, splitCalc, deep + 1, buf)
         );
     }
 
+    /**
+     * Sorts rows of features and labels synchronously by values of the given column. Rows are moved as references,
+     * so feature values aren't copied, and all intermediate arrays are taken from the given buffers.
+     *
+     * @param features Features.
+     * @param labels Labels.
+     * @param col Column.
+     * @param buf Buffers used to sort rows.
+     */
+    private static void sort(double[][] features, double[] labels, int col, SortBuffers buf) {
+        int n = features.length;
+
+        for (int i = 0; i < n; i++)
+            buf.keys[i] = features[i][col];
+
+        if (DoubleSort.isSorted(buf.keys, 0, n))
+            return;
+
+        DoubleSort.argSort(buf.keys, n, buf.order);
+
+        System.arraycopy(features, 0, buf.rows, 0, n);
+        System.arraycopy(labels, 0, buf.labels, 0, n);
+
+        for (int i = 0; i < n; i++) {
+            features[i] = buf.rows[buf.order[i]];
+            labels[i] = buf.labels[buf.order[i]];
+        }
+    }
+
+    /**
+     * Splits the rows of presorted data in the given range, and returns decision tree node. Rows of the "else" child
+     * are moved to the beginning of the range of every column order, rows of the "then" child to the end.
+     *
+     * @param data Presorted data.
+     * @param splitCalc Split calculator.
+     * @param from Index of the first row of the node in column orders (inclusive).
+     * @param to Index of the last row of the node in column orders (exclusive).
+     * @param deep Current decision tree deep.
+     * @return Decision tree node.
+     */
+    private Node split(PresortedData data, SplitCalculator splitCalc, int from, int to, int deep) {
+        if (deep >= maxDeep)
+            return createLeafNode(data.sortedLabels(0, from, to), from, to);
+
+        int bestCol = -1;
+        SplitPoint bestSplitPnt = null;
+
+        List<ColumnTask> colTasks = null;
+
+        if (data.parallel && to - from >= PARALLEL_COLUMNS_THRESHOLD && data.columns.length > 1) {
+            colTasks = new ArrayList<>(data.columns.length);
+            for (int col = 0; col < data.columns.length; col++)
+                colTasks.add(new ColumnTask(data, splitCalc, col, from, to));
+
+            ForkJoinTask.invokeAll(colTasks);
+        }
+
+        for (int col = 0; col < data.columns.length; col++) {
+            SplitPoint splitPnt = colTasks != null ? colTasks.get(col).join() :
+                findBestSplit(data, splitCalc, col, from, to);
+
+            if (splitPnt == null)
+                continue;
+
+            if (bestSplitPnt == null || splitPnt.getImpurityVal() < bestSplitPnt.getImpurityVal()) {
+                bestSplitPnt = splitPnt;
+                bestCol = col;
+            }
+        }
+
+        if (bestSplitPnt == null || bestSplitPnt.getLeftSize() == 0)
+            return createLeafNode(data.sortedLabels(0, from, to), from, to);
+
+        int mid = from + bestSplitPnt.getLeftSize();
+
+        double[] column = data.columns[bestCol];
+        int[] order = data.order[bestCol];
+        double threshold = (column[order[mid - 1]] + column[order[mid]]) / 2;
+
+        data.partition(bestCol, from, mid, to);
+
+        if (data.parallel && to - from >= PARALLEL_SUBTREES_THRESHOLD) {
+            SplitTask thenTask = new SplitTask(data, splitCalc, mid, to, deep + 1);
+            thenTask.fork();
+
+            Node elseNode = split(data, splitCalc, from, mid, deep + 1);
+
+            return new ConditionalNode(bestCol, threshold, thenTask.join(), elseNode);
+        }
+
+        return new ConditionalNode(
+            bestCol,
+            threshold,
+            split(data, splitCalc, mid, to, deep + 1),
+            split(data, splitCalc, from, mid, deep + 1)
+        );
+    }
+
+    /**
+     * Returns a split point that minimizes impurity of the node if it's split by the given column.
+     *
+     * @param data Presorted data.
+     * @param splitCalc Split calculator.
+     * @param col Column.
+     * @param from Index of the first row of the node in column orders (inclusive).
+     * @param to Index of the last row of the node in column orders (exclusive).
+     * @return Split point ({@code null} if there is no split).
+     */
+    private SplitPoint findBestSplit(PresortedData data, SplitCalculator splitCalc, int col, int from, int to) {
+        return splitCalc.findBestSplit(data.sortedLabels(col, from, to), from, to, minImpurityDecrease);
+    }
+
+    /**
+     * Creates a leaf node.
+     *
+     * @param labels Labels.
+     * @return Leaf node.
+     */
+    LeafNode createLeafNode(double[] labels) {
+        return createLeafNode(labels, 0, labels.length);
+    }
+
     /**
      * Creates a leaf node.
      *
      * @param labels Labels.
+     * @param from Index of the first label (inclusive).
+     * @param to Index of the last label (exclusive).
      * @return Leaf node.
      */
-    abstract LeafNode createLeafNode(double[] labels);
+    abstract LeafNode createLeafNode(double[] labels, int from, int to);
+
+    /**
+     * Buffers used to sort rows of nodes when data isn't presorted. Buffers are allocated once per training for the
+     * whole dataset, rows of every node fit in their beginning.
+     */
+    private static class SortBuffers {
+        /** Values of the sorted column. */
+        private final double[] keys;
+
+        /** Order of rows sorted by the column. */
+        private final int[] order;
+
+        /** Copy of rows being sorted. */
+        private final double[][] rows;
+
+        /** Copy of labels being sorted. */
+        private final double[] labels;
+
+        /**
+         * Constructs a new instance of sort buffers.
+         *
+         * @param size Number of rows of the dataset.
+         */
+        SortBuffers(int size) {
+            this.keys = new double[size];
+            this.order = new int[size];
+            this.rows = new double[size][];
+            this.labels = new double[size];
+        }
+    }
+
+    /**
+     * Training data with every column sorted once. All buffers are allocated once per training and every node works
+     * only with its own range of them, so nodes are split without allocations.
+     */
+    private static class PresortedData {
+        /** Features (array of columns). */
+        private final double[][] columns;
+
+        /** Labels. */
+        private final double[] labels;
+
+        /** Rows ascendingly sorted by value of every column (rows of a node occupy the same range in every order). */
+        private final int[][] order;
+
+        /** Flag that shows that nodes are split in parallel. */
+        private final boolean parallel;
+
+        /** Buffers for labels sorted by a column (one buffer per column if nodes are split in parallel). */
+        private final double[][] sortedLabels;
+
+        /** Buffer for rows moved during partitioning. */
+        private final int[] rowsBuf;
+
+        /** Flags that show that row goes to the "else" child of the node being split. */
+        private final boolean[] left;
+
+        /**
+         * Constructs a new instance of presorted data.
+         *
+         * @param features Features (array of rows).
+         * @param labels Labels.
+         * @param parallel Flag that shows that nodes are split in parallel.
+         */
+        PresortedData(double[][] features, double[] labels, boolean parallel) {
+            int colsCnt = features.length == 0 ? 0 : features[0].length;
+
+            this.columns = new double[colsCnt][labels.length];
+            this.labels = labels;
+            this.order = new int[colsCnt][];
+            this.parallel = parallel;
+            this.sortedLabels = new double[parallel ? Math.max(colsCnt, 1) : 1][labels.length];
+            this.rowsBuf = new int[labels.length];
+            this.left = new boolean[labels.length];
+
+            for (int i = 0; i < features.length; i++)
+                for (int col = 0; col < colsCnt; col++)
+                    columns[col][i] = features[i][col];
+
+            for (int col = 0; col < colsCnt; col++)
+                order[col] = DoubleSort.argSort(columns[col]);
+        }
+
+        /**
+         * Fills the given range of the labels buffer with labels of the node sorted by the column. Ranges of
+         * different nodes don't intersect, so nodes can be processed concurrently.
+         *
+         * @param col Column.
+         * @param from Index of the first row of the node (inclusive).
+         * @param to Index of the last row of the node (exclusive).
+         * @return Labels buffer.
+         */
+        double[] sortedLabels(int col, int from, int to) {
+            int[] colOrder = order.length == 0 ? null : order[col];
+            double[] buf = sortedLabels[parallel ? col : 0];
+
+            for (int i = from; i < to; i++)
+                buf[i] = labels[colOrder == null ? i : colOrder[i]];
+
+            return buf;
+        }
+
+        /**
+         * Partitions rows of the node in every column order, so rows of the "else" child (first {@code mid - from}
+         * rows in order of the split column) occupy {@code [from, mid)} and rows of the "then" child occupy
+         * {@code [mid, to)}. Partitioning is stable, so both ranges stay sorted.
+         *
+         * @param splitCol Split column.
+         * @param from Index of the first row of the node (inclusive).
+         * @param mid Index of the first row of the "then" child.
+         * @param to Index of the last row of the node (exclusive).
+         */
+        void partition(int splitCol, int from, int mid, int to) {
+            int[] splitOrder = order[splitCol];
+
+            for (int i = from; i < to; i++)
+                left[splitOrder[i]] = i < mid;
+
+            for (int col = 0; col < order.length; col++) {
+                if (col == splitCol)
+                    continue;
+
+                int[] colOrder = order[col];
+                int leftPtr = from, rightPtr = mid;
+
+                for (int i = from; i < to; i++) {
+                    int row = colOrder[i];
+
+                    if (left[row])
+                        colOrder[leftPtr++] = row;
+                    else
+                        rowsBuf[rightPtr++] = row;
+                }
+
+                System.arraycopy(rowsBuf, mid, colOrder, mid, to - mid);
+            }
+        }
+    }
+
+    /**
+     * Task that builds a subtree.
+     */
+    private class SplitTask extends RecursiveTask<Node> {
+        /** */
+        private static final long serialVersionUID = -6072405832458926491L;
+
+        /** Presorted data. */
+        private final PresortedData data;
+
+        /** Split calculator. */
+        private final SplitCalculator splitCalc;
+
+        /** Index of the first row of the node in column orders (inclusive). */
+        private final int from;
+
+        /** Index of the last row of the node in column orders (exclusive). */
+        private final int to;
+
+        /** Current decision tree deep. */
+        private final int deep;
+
+        /**
+         * Constructs a new instance of split task.
+         *
+         * @param data Presorted data.
+         * @param splitCalc Split calculator.
+         * @param from Index of the first row of the node in column orders (inclusive).
+         * @param to Index of the last row of the node in column orders (exclusive).
+         * @param deep Current decision tree deep.
+         */
+        SplitTask(PresortedData data, SplitCalculator splitCalc, int from, int to, int deep) {
+            this.data = data;
+            this.splitCalc = splitCalc;
+            this.from = from;
+            this.to = to;
+            this.deep = deep;
+        }
+
+        /** {@inheritDoc} */
+        @Override protected Node compute() {
+            return split(data, splitCalc, from, to, deep);
+        }
+    }
+
+    /**
+     * Task that finds the best split of a node by a single column.
+     */
+    private class ColumnTask extends RecursiveTask<SplitPoint> {
+        /** */
+        private static final long serialVersionUID = 3390927440911716585L;
+
+        /** Presorted data. */
+        private final PresortedData data;
+
+        /** Split calculator. */
+        private final SplitCalculator splitCalc;
+
+        /** Column. */
+        private final int col;
+
+        /** Index of the first row of the node in column orders (inclusive). */
+        private final int from;
+
+        /** Index of the last row of the node in column orders (exclusive). */
+        private final int to;
+
+        /**
+         * Constructs a new instance of column task.
+         *
+         * @param data Presorted data.
+         * @param splitCalc Split calculator.
+         * @param col Column.
+         * @param from Index of the first row of the node in column orders (inclusive).
+         * @param to Index of the last row of the node in column orders (exclusive).
+         */
+        ColumnTask(PresortedData data, SplitCalculator splitCalc, int col, int from, int to) {
+            this.data = data;
+            this.splitCalc = splitCalc;
+            this.col = col;
+            this.from = from;
+            this.to = to;
+        }
+
+        /** {@inheritDoc} */
+        @Override protected SplitPoint compute() {
+            return findBestSplit(data, splitCalc, col, from, to);
+        }
+    }
 }
@@ -17,11 +17,13 @@
 
 package com.dmitrievanthony.tree.core.local;
 
+import com.dmitrievanthony.tree.core.ConditionalNode;
 import com.dmitrievanthony.tree.core.LeafNode;
+import com.dmitrievanthony.tree.core.Node;
 import com.dmitrievanthony.tree.core.local.criteria.GiniSplitCalculator;
 import com.dmitrievanthony.tree.core.local.criteria.SplitCalculator;
-import java.util.HashMap;
-import java.util.Map;
+import com.dmitrievanthony.tree.utils.LabelEncoder;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Decision tree classifier based on local decision tree trainer.
@@ -40,26 +42,72 @@ public class LocalDecisionTreeClassifier extends LocalDecisionTree {
         super(defaultSplitCalc, maxDeep, minImpurityDecrease);
     }
 
+    /**
+     * Constructs a new instance of local decision tree classifier.
+     *
+     * @param maxDeep Max tree deep.
+     * @param minImpurityDecrease Min impurity decrease.
+     * @param presorting Presorting flag.
+     */
+    public LocalDecisionTreeClassifier(int maxDeep, double minImpurityDecrease, boolean presorting) {
+        super(defaultSplitCalc, maxDeep, minImpurityDecrease, presorting, null);
+    }
+
+    /**
+     * Constructs a new instance of local decision tree classifier. The tree is built in parallel using the given pool.
+     *
+     * @param maxDeep Max tree deep.
+     * @param minImpurityDecrease Min impurity decrease.
+     * @param pool Fork-join pool.
+     */
+    public LocalDecisionTreeClassifier(int maxDeep, double minImpurityDecrease, ForkJoinPool pool) {
+        super(defaultSplitCalc, maxDeep, minImpurityDecrease, true, pool);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Labels are encoded into class codes once and the split calculator gets the number of classes, so split
+     * calculator and leaves count classes in primitive arrays.
+     */
+    @Override public Node fit(double[][] features, double[] labels) {
+        LabelEncoder encoder = LabelEncoder.fit(labels, 0, labels.length);
+
+        double[] codes = new double[labels.length];
+        for (int i = 0; i < labels.length; i++)
+            codes[i] = encoder.encode(labels[i]);
+
+        return decode(fit(features, codes, new GiniSplitCalculator(encoder.size())), encoder);
+    }
+
     /** {@inheritDoc} */
-    @Override LeafNode createLeafNode(double[] labels) {
-        Map<Double, Integer> cnt = new HashMap<>();
-        for (double label : labels) {
-            if (cnt.containsKey(label))
-                cnt.put(label, cnt.get(label) + 1);
-            else
-                cnt.put(label, 1);
-        }
+    @Override LeafNode createLeafNode(double[] labels, int from, int to) {
+        int[] cnt = new int[Math.max(LabelEncoder.getCodesCnt(labels, from, to), 0)];
+        for (int i = from; i < to; i++)
+            cnt[(int)labels[i]]++;
+
+        int bestCode = 0;
+        for (int code = 1; code < cnt.length; code++)
+            if (cnt[code] > cnt[bestCode])
+                bestCode = code;
+
+        return new LeafNode(bestCode);
+    }
 
-        double bestVal = 0;
-        int bestCnt = -1;
+    /**
+     * Replaces class codes in leaves of the given tree by label classes.
+     *
+     * @param node Decision tree node.
+     * @param encoder Label encoder.
+     * @return Decision tree node.
+     */
+    private static Node decode(Node node, LabelEncoder encoder) {
+        if (node instanceof LeafNode)
+            return new LeafNode(encoder.decode((int)((LeafNode)node).getVal()));
 
-        for (Map.Entry<Double, Integer> e : cnt.entrySet()) {
-            if (e.getValue() > bestCnt) {
-                bestCnt = e.getValue();
-                bestVal = e.getKey();
-            }
-        }
+        ConditionalNode cn = (ConditionalNode)node;
 
-        return new LeafNode(bestVal);
+        return new ConditionalNode(cn.getCol(), cn.getThreshold(), decode(cn.getThenNode(), encoder),
+            decode(cn.getElseNode(), encoder));
     }
 }
@@ -20,6 +20,7 @@ package com.dmitrievanthony.tree.core.local;
 import com.dmitrievanthony.tree.core.LeafNode;
 import com.dmitrievanthony.tree.core.local.criteria.MSESplitCalculator;
 import com.dmitrievanthony.tree.core.local.criteria.SplitCalculator;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Decision tree regressor based on local decision tree trainer.
@@ -38,12 +39,34 @@ public class LocalDecisionTreeRegressor extends LocalDecisionTree {
         super(defaultSplitCalc, maxDeep, minImpurityDecrease);
     }
 
+    /**
+     * Constructs a new instance of local decision tree regressor.
+     *
+     * @param maxDeep Max tree deep.
+     * @param minImpurityDecrease Min impurity decrease.
+     * @param presorting Presorting flag.
+     */
+    public LocalDecisionTreeRegressor(int maxDeep, double minImpurityDecrease, boolean presorting) {
+        super(defaultSplitCalc, maxDeep, minImpurityDecrease, presorting, null);
+    }
+
+    /**
+     * Constructs a new instance of local decision tree regressor. The tree is built in parallel using the given pool.
+     *
+     * @param maxDeep Max tree deep.
+     * @param minImpurityDecrease Min impurity decrease.
+     * @param pool Fork-join pool.
+     */
+    public LocalDecisionTreeRegressor(int maxDeep, double minImpurityDecrease, ForkJoinPool pool) {
+        super(defaultSplitCalc, maxDeep, minImpurityDecrease, true, pool);
+    }
+
     /** {@inheritDoc} */
-    @Override LeafNode createLeafNode(double[] labels) {
+    @Override LeafNode createLeafNode(double[] labels, int from, int to) {
         double mean = 0;
-        for (int i = 0; i < labels.length; i++)
+        for (int i = from; i < to; i++)
             mean += labels[i];
-        mean = mean / labels.length;
+        mean = mean / (to - from);
 
         return new LeafNode(mean);
     }
@@ -17,60 +17,99 @@
 
 package com.dmitrievanthony.tree.core.local.criteria;
 
-import java.util.HashMap;
-import java.util.Map;
+import com.dmitrievanthony.tree.utils.LabelEncoder;
 
 /**
  * Split calculator used Gini impurity measure which is calculated the following way:
- * {@code \frac{1}{L}\sum_{i=0}^{n}l^2 + \frac{1}{R}\sum_{i=0}^{n}r^2}.
+ * {@code \frac{1}{L}\sum_{i=0}^{n}l^2 + \frac{1}{R}\sum_{i=0}^{n}r^2}. Labels might be arbitrary values, in this
+ * case they are encoded on every call. If labels are encoded into class codes before training (see
+ * {@link LabelEncoder}) and the number of classes is passed to the calculator, classes are counted in primitive arrays
+ * without encoding.
  */
 public class GiniSplitCalculator implements SplitCalculator {
+    /** Number of classes if labels are class codes ({@code 0} if labels are encoded on every call). */
+    private final int classesCnt;
+
+    /**
+     * Constructs a new instance of Gini split calculator which accepts arbitrary labels.
+     */
+    public GiniSplitCalculator() {
+        this.classesCnt = 0;
+    }
+
+    /**
+     * Constructs a new instance of Gini split calculator which accepts class codes {@code 0, 1, ..., classesCnt - 1}
+     * only.
+     *
+     * @param classesCnt Number of classes.
+     */
+    public GiniSplitCalculator(int classesCnt) {
+        if (classesCnt <= 0)
+            throw new IllegalArgumentException("Number of classes has to be positive");
+
+        this.classesCnt = classesCnt;
+    }
+
     /** {@inheritDoc} */
-    @Override public SplitPoint findBestSplit(double[] labels, double minImpurityDecrease) {
-        if (labels.length == 0)
+    @Override public SplitPoint findBestSplit(double[] labels, int from, int to, double minImpurityDecrease) {
+        if (to - from == 0)
             return null;
 
-        Map<Double, Integer> left = new HashMap<>();
-        Map<Double, Integer> right = new HashMap<>();
+        if (classesCnt > 0)
+            return findBestSplit(labels, from, to, classesCnt, null, minImpurityDecrease);
 
-        for (double lb : labels) {
-            if (right.containsKey(lb))
-                right.put(lb, right.get(lb) + 1);
-            else
-                right.put(lb, 1);
-        }
+        LabelEncoder encoder = LabelEncoder.fit(labels, from, to);
+
+        return findBestSplit(labels, from, to, encoder.size(), encoder, minImpurityDecrease);
+    }
+
+    /**
+     * Returns a split point that minimizes impurity of the given range of labels.
+     *
+     * @param labels Labels.
+     * @param from Index of the first label (inclusive).
+     * @param to Index of the last label (exclusive).
+     * @param classesCnt Number of classes.
+     * @param encoder Label encoder ({@code null} if labels are class codes).
+     * @param minImpurityDecrease Min impurity decrease.
+     * @return Split point that minimizes impurity (size of the left part is relative to {@code from}).
+     */
+    private static SplitPoint findBestSplit(double[] labels, int from, int to, int classesCnt, LabelEncoder encoder,
+        double minImpurityDecrease) {
+        int size = to - from;
+
+        int[] left = new int[classesCnt];
+        int[] right = new int[classesCnt];
+
+        for (int i = from; i < to; i++)
+            right[encoder == null ? (int)labels[i] : encoder.encode(labels[i])]++;
 
         double res = 0;
-        for (Integer c : right.values())
+        for (int c : right)
             res += Math.pow(c, 2);
 
         double leftImpurity = 0;
-        double rightImpurity = res / labels.length;
+        double rightImpurity = res / size;
 
         double initImpurity = -rightImpurity;
 
         SplitPoint bestSplitPnt = null;
 
-        for (int leftSize = 1; leftSize < labels.length; leftSize++) {
-            double lb = labels[leftSize - 1];
-            int featureCntLeft = left.containsKey(lb) ? left.get(lb) + 1 : 1;
-            int featureCntRight = right.containsKey(lb) ? right.get(lb) - 1 : 0;
-
-            left.put(lb, featureCntLeft);
+        for (int leftSize = 1; leftSize < size; leftSize++) {
+            double lb = labels[from + leftSize - 1];
+            int code = encoder == null ? (int)lb : encoder.encode(lb);
 
-            if (featureCntRight == 0)
-                right.remove(lb);
-            else
-                right.put(lb, featureCntRight);
+            int featureCntLeft = ++left[code];
+            int featureCntRight = --right[code];
 
             leftImpurity = leftImpurity * (leftSize - 1);
-            rightImpurity = rightImpurity * (labels.length - leftSize + 1);
+            rightImpurity = rightImpurity * (size - leftSize + 1);
 
             leftImpurity = leftImpurity + 2 * featureCntLeft - 1;
             rightImpurity = rightImpurity - 2 * featureCntRight - 1;
 
             leftImpurity = leftImpurity / leftSize;
-            rightImpurity = rightImpurity / (labels.length - leftSize);
+            rightImpurity = rightImpurity / (size - leftSize);
 
             double splitImpurity = -(leftImpurity + rightImpurity);
 
@@ -23,26 +23,28 @@ package com.dmitrievanthony.tree.core.local.criteria;
  */
 public class MSESplitCalculator implements SplitCalculator {
     /** {@inheritDoc} */
-    @Override public SplitPoint findBestSplit(double[] labels, double minImpurityDecrease) {
+    @Override public SplitPoint findBestSplit(double[] labels, int from, int to, double minImpurityDecrease) {
+        int size = to - from;
+
         SplitPoint bestSplitPnt = null;
         double initImpurity = 0;
 
-        for (int leftSize = 0; leftSize < labels.length; leftSize++) {
+        for (int leftSize = 0; leftSize < size; leftSize++) {
             double sumL = 0;
             double sumR = 0;
-            for (int i = 0; i < leftSize; i++)
+            for (int i = from; i < from + leftSize; i++)
                 sumL += labels[i] / leftSize;
-            for (int i = leftSize; i < labels.length; i++)
-                sumR += labels[i] / (labels.length - leftSize);
+            for (int i = from + leftSize; i < to; i++)
+                sumR += labels[i] / (size - leftSize);
             double meanL = sumL;
             double meanR = sumR;
 
             double resL = 0;
             double resR = 0;
-            for (int i = 0; i < leftSize; i++)
+            for (int i = from; i < from + leftSize; i++)
                 resL += (Math.pow(labels[i] - meanL, 2) / leftSize);
-            for (int i = leftSize; i < labels.length; i++)
-                resR += (Math.pow(labels[i] - meanR, 2) / (labels.length - leftSize));
+            for (int i = from + leftSize; i < to; i++)
+                resR += (Math.pow(labels[i] - meanR, 2) / (size - leftSize));
 
             double mse = resR + resL;
 
@@ -28,5 +28,18 @@ public interface SplitCalculator {
      * @param minImpurityDecrease Minimal impurity decrease.
      * @return Split point that minimizes impurity.
      */
-    public SplitPoint findBestSplit(double[] labels, double minImpurityDecrease);
+    public default SplitPoint findBestSplit(double[] labels, double minImpurityDecrease) {
+        return findBestSplit(labels, 0, labels.length, minImpurityDecrease);
+    }
+
+    /**
+     * Returns a split point that minimizes impurity of the given range of labels.
+     *
+     * @param labels Labels.
+     * @param from Index of the first label (inclusive).
+     * @param to Index of the last label (exclusive).
+     * @param minImpurityDecrease Minimal impurity decrease.
+     * @return Split point that minimizes impurity (size of the left part is relative to {@code from}).
+     */
+    public SplitPoint findBestSplit(double[] labels, int from, int to, double minImpurityDecrease);
 }
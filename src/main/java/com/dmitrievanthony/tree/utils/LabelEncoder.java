@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Label encoder which defines integer code for every label class, so classes can be counted in primitive arrays
+ * instead of maps. Lookup of a code is a binary search over sorted classes and doesn't allocate memory. If classes
+ * are the codes themselves ({@code 0, 1, ..., n - 1}) lookup is a simple cast.
+ */
+public class LabelEncoder implements Serializable {
+    /** */
+    private static final long serialVersionUID = 5340127619536251307L;
+
+    /** Max number of classes labels are treated as codes without encoding by {@link #getCodesCnt}. */
+    public static final int MAX_CODES_CNT = 1 << 16;
+
+    /** Label classes by code. */
+    private final double[] classes;
+
+    /** Ascendingly sorted label classes. */
+    private final double[] sortedClasses;
+
+    /** Codes of sorted label classes. */
+    private final int[] sortedCodes;
+
+    /** Flag that shows that every class is equal to its code. */
+    private final boolean identity;
+
+    /**
+     * Constructs a new instance of label encoder.
+     *
+     * @param classes Distinct label classes by code.
+     */
+    public LabelEncoder(double[] classes) {
+        this.classes = classes;
+        this.sortedClasses = classes.clone();
+        this.sortedCodes = new int[classes.length];
+
+        Arrays.sort(sortedClasses);
+
+        boolean identity = true;
+
+        for (int i = 0; i < classes.length; i++) {
+            if (i > 0 && Double.compare(sortedClasses[i - 1], sortedClasses[i]) == 0)
+                throw new IllegalArgumentException("Label classes are not distinct: " + sortedClasses[i]);
+
+            sortedCodes[Arrays.binarySearch(sortedClasses, classes[i])] = i;
+            identity &= classes[i] == i;
+        }
+
+        this.identity = identity;
+    }
+
+    /**
+     * Creates label encoder which codes are defined by the given map.
+     *
+     * @param encoder Map from label class to code (codes are {@code 0, 1, ..., n - 1}).
+     * @return Label encoder.
+     */
+    public static LabelEncoder of(Map<Double, Integer> encoder) {
+        double[] classes = new double[encoder.size()];
+
+        for (Map.Entry<Double, Integer> e : encoder.entrySet())
+            classes[e.getValue()] = e.getKey();
+
+        return new LabelEncoder(classes);
+    }
+
+    /**
+     * Creates label encoder which encodes all distinct labels in the given range in ascending order.
+     *
+     * @param labels Labels.
+     * @param from Index of the first label (inclusive).
+     * @param to Index of the last label (exclusive).
+     * @return Label encoder.
+     */
+    public static LabelEncoder fit(double[] labels, int from, int to) {
+        return new LabelEncoder(distinct(labels, from, to));
+    }
+
+    /**
+     * Returns code of the given label.
+     *
+     * @param lb Label.
+     * @return Label code.
+     */
+    public int encode(double lb) {
+        if (identity) {
+            int code = (int)lb;
+
+            if (code == lb && code >= 0 && code < classes.length)
+                return code;
+        }
+
+        int pos = Arrays.binarySearch(sortedClasses, lb);
+
+        if (pos < 0)
+            throw new IllegalArgumentException("Can't find code for label " + lb);
+
+        return sortedCodes[pos];
+    }
+
+    /**
+     * Returns label class of the given code.
+     *
+     * @param code Label code.
+     * @return Label class.
+     */
+    public double decode(int code) {
+        return classes[code];
+    }
+
+    /** */
+    public int size() {
+        return classes.length;
+    }
+
+    /**
+     * Returns number of classes if all labels in the given range are codes ({@code 0, 1, ...} less than
+     * {@link #MAX_CODES_CNT}), so they can be counted without encoding.
+     *
+     * @param labels Labels.
+     * @param from Index of the first label (inclusive).
+     * @param to Index of the last label (exclusive).
+     * @return Max label plus one or {@code -1} if labels are not codes.
+     */
+    public static int getCodesCnt(double[] labels, int from, int to) {
+        int max = -1;
+
+        for (int i = from; i < to; i++) {
+            double lb = labels[i];
+            int code = (int)lb;
+
+            if (code != lb || code < 0 || code >= MAX_CODES_CNT)
+                return -1;
+
+            max = Math.max(max, code);
+        }
+
+        return max + 1;
+    }
+
+    /**
+     * Returns distinct labels in the given range.
+     *
+     * @param labels Labels.
+     * @param from Index of the first label (inclusive).
+     * @param to Index of the last label (exclusive).
+     * @return Ascendingly sorted distinct labels.
+     */
+    public static double[] distinct(double[] labels, int from, int to) {
+        double[] sorted = Arrays.copyOfRange(labels, from, to);
+        Arrays.sort(sorted);
+
+        int ptr = 0;
+        for (int i = 0; i < sorted.length; i++)
+            if (i == 0 || Double.compare(sorted[i], sorted[ptr - 1]) != 0)
+                sorted[ptr++] = sorted[i];
+
+        return Arrays.copyOf(sorted, ptr);
+    }
+
+    /**
+     * Merges two ascendingly sorted arrays of distinct labels.
+     *
+     * @param a First array of distinct labels ({@code null} if empty).
+     * @param b Second array of distinct labels ({@code null} if empty).
+     * @return Ascendingly sorted distinct labels of both arrays.
+     */
+    public static double[] mergeDistinct(double[] a, double[] b) {
+        if (a == null)
+            return b;
+        else if (b == null)
+            return a;
+
+        double[] res = new double[a.length + b.length];
+        int i = 0, j = 0, ptr = 0;
+
+        while (i < a.length || j < b.length) {
+            int cmp = i == a.length ? 1 : j == b.length ? -1 : Double.compare(a[i], b[j]);
+
+            if (cmp <= 0)
+                res[ptr++] = a[i++];
+            else
+                res[ptr++] = b[j++];
+
+            if (cmp == 0)
+                j++;
+        }
+
+        return Arrays.copyOf(res, ptr);
+    }
+}
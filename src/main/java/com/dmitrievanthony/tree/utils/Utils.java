@@ -27,38 +27,6 @@ import java.util.List;
  * Utils class that contains common operations.
  */
 public class Utils {
-    /**
-     * Sorts the specified arrays synchronously (based on {@code x} values).
-     *
-     * @param x Array with master data.
-     * @param y Array with dependent data.
-     * @param <T> Type of dependent data.
-     */
-    public static <T> void quickSort(double[] x, T[] y) {
-        quickSort(x, y, 0, x.length - 1);
-    }
-
-    /**
-     * Sorts the specified arrays synchronously (based on {@code x} values).
-     *
-     * @param x Array with master data.
-     * @param y Array with dependent data.
-     */
-    public static void quickSort(double[] x, double[] y) {
-        quickSort(x, y, 0, x.length - 1);
-    }
-
-    /**
-     * Sorts the specified arrays synchronously (based on {@code x} values).
-     *
-     * @param x Array with master data.
-     * @param y Array with dependent data.
-     * @param col Column of x to be used.
-     */
-    public static void quickSort(double[][] x, double[] y, int col) {
-        quickSort(x, y, col, 0, x.length - 1);
-    }
-
     /**
      * Prints decision tree node.
      *
@@ -84,76 +52,4 @@ public class Utils {
         else
             throw new IllegalStateException();
     }
-
-    /** */
-    private static <T> void quickSort(double[] x, T[] y, int from, int to) {
-        if (from < to) {
-            double pivot = x[(from + to) / 2];
-            int i = from, j = to;
-            while (i <= j) {
-                while (x[i] < pivot) i++;
-                while (x[j] > pivot) j--;
-                if (i <= j) {
-                    double tmpX = x[i];
-                    x[i] = x[j];
-                    x[j] = tmpX;
-                    T tmpY = y[i];
-                    y[i] = y[j];
-                    y[j] = tmpY;
-                    i++;
-                    j--;
-                }
-            }
-            quickSort(x, y, from, j);
-            quickSort(x, y, i, to);
-        }
-    }
-
-    /** */
-    private static void quickSort(double[] x, double[] y, int from, int to) {
-        if (from < to) {
-            double pivot = x[(from + to) / 2];
-            int i = from, j = to;
-            while (i <= j) {
-                while (x[i] < pivot) i++;
-                while (x[j] > pivot) j--;
-                if (i <= j) {
-                    double tmpX = x[i];
-                    x[i] = x[j];
-                    x[j] = tmpX;
-                    double tmpY = y[i];
-                    y[i] = y[j];
-                    y[j] = tmpY;
-                    i++;
-                    j--;
-                }
-            }
-            quickSort(x, y, from, j);
-            quickSort(x, y, i, to);
-        }
-    }
-
-    /** */
-    private static void quickSort(double[][] x, double[] y, int col, int from, int to) {
-        if (from < to) {
-            double pivot = x[(from + to) / 2][col];
-            int i = from, j = to;
-            while (i <= j) {
-                while (x[i][col] < pivot) i++;
-                while (x[j][col] > pivot) j--;
-                if (i <= j) {
-                    double[] tmpX = x[i];
-                    x[i] = x[j];
-                    x[j] = tmpX;
-                    double tmpY = y[i];
-                    y[i] = y[j];
-                    y[j] = tmpY;
-                    i++;
-                    j--;
-                }
-            }
-            quickSort(x, y, col, from, j);
-            quickSort(x, y, col, i, to);
-        }
-    }
 }
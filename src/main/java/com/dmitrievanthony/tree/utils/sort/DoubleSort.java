@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.utils.sort;
+
+import java.util.Arrays;
+
+/**
+ * Sort kernels for {@code double} keys. Keys are ordered the same way as {@link Double#compare(double, double)} does
+ * ({@code -0.0} is less than {@code 0.0}, {@code NaN} is greater than any other value). Arrays are checked first and
+ * already sorted arrays are left as is. Small arrays are sorted by {@link IntroSort}, big arrays by {@link RadixSort}
+ * on the bit patterns of keys. Auxiliary buffers of moderate size are kept per thread and reused, so sorting of such
+ * arrays doesn't allocate memory once buffers are big enough.
+ */
+public class DoubleSort {
+    /** Min number of elements sorted by radix sort. */
+    static final int RADIX_THRESHOLD = 512;
+
+    /** Auxiliary buffers of the current thread. */
+    private static final ThreadLocal<SortBuffers> buffers = ThreadLocal.withInitial(SortBuffers::new);
+
+    /**
+     * Checks if the given array is sorted ascendingly.
+     *
+     * @param x Array.
+     * @return {@code true} if the array is sorted.
+     */
+    public static boolean isSorted(double[] x) {
+        return isSorted(x, 0, x.length);
+    }
+
+    /**
+     * Checks if the given range of the array is sorted ascendingly.
+     *
+     * @param x Array.
+     * @param from Index of the first element (inclusive).
+     * @param to Index of the last element (exclusive).
+     * @return {@code true} if the range is sorted.
+     */
+    public static boolean isSorted(double[] x, int from, int to) {
+        for (int i = from + 1; i < to; i++)
+            if (Double.compare(x[i - 1], x[i]) > 0)
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Returns indices of the specified array elements sorted ascendingly by their values. The array isn't changed.
+     *
+     * @param x Array.
+     * @return Indices of elements sorted by their values.
+     */
+    public static int[] argSort(double[] x) {
+        int[] idx = new int[x.length];
+
+        argSort(x, x.length, idx, buffers.get());
+
+        return idx;
+    }
+
+    /**
+     * Fills the index array with indices of the first {@code n} elements of the specified array sorted ascendingly by
+     * their values. The array isn't changed and no memory is allocated once auxiliary buffers of the current thread
+     * are big enough, so callers can reuse both arrays.
+     *
+     * @param x Array.
+     * @param n Number of sorted elements.
+     * @param idx Index array (at least {@code n} elements), indices are put into its first {@code n} elements.
+     */
+    public static void argSort(double[] x, int n, int[] idx) {
+        if (n > x.length || n > idx.length)
+            throw new IllegalArgumentException("Arrays have to contain at least " + n + " elements");
+
+        argSort(x, n, idx, buffers.get());
+    }
+
+    /**
+     * Sorts the specified array ascendingly.
+     *
+     * @param x Array.
+     */
+    public static void sort(double[] x) {
+        if (isSorted(x))
+            return;
+
+        SortBuffers buf = buffers.get();
+        int[] idx = buf.idx(x.length);
+
+        argSort(x, x.length, idx, buf);
+
+        permute(x, idx, buf);
+    }
+
+    /**
+     * Sorts the specified arrays synchronously (based on {@code x} values).
+     *
+     * @param x Array with master data.
+     * @param y Array with dependent data.
+     */
+    public static void sort(double[] x, double[] y) {
+        checkLength(x, y.length);
+
+        if (isSorted(x))
+            return;
+
+        SortBuffers buf = buffers.get();
+        int[] idx = buf.idx(x.length);
+
+        argSort(x, x.length, idx, buf);
+
+        permute(x, idx, buf);
+        permute(y, idx, buf);
+    }
+
+    /**
+     * Sorts the specified arrays synchronously (based on {@code x} values).
+     *
+     * @param x Array with master data.
+     * @param y Array with dependent data.
+     */
+    public static void sort(double[] x, int[] y) {
+        checkLength(x, y.length);
+
+        if (isSorted(x))
+            return;
+
+        SortBuffers buf = buffers.get();
+        int[] idx = buf.idx(x.length);
+
+        argSort(x, x.length, idx, buf);
+
+        permute(x, idx, buf);
+
+        int[] tmp = buf.ints(y.length);
+        for (int i = 0; i < y.length; i++)
+            tmp[i] = y[idx[i]];
+
+        System.arraycopy(tmp, 0, y, 0, y.length);
+    }
+
+    /**
+     * Sorts the specified arrays synchronously (based on {@code x} values).
+     *
+     * @param x Array with master data.
+     * @param y Array with dependent data.
+     * @param <T> Type of dependent data.
+     */
+    public static <T> void sort(double[] x, T[] y) {
+        checkLength(x, y.length);
+
+        if (isSorted(x))
+            return;
+
+        SortBuffers buf = buffers.get();
+        int[] idx = buf.idx(x.length);
+
+        argSort(x, x.length, idx, buf);
+
+        permute(x, idx, buf);
+
+        Object[] tmp = buf.objects(y.length);
+        for (int i = 0; i < y.length; i++)
+            tmp[i] = y[idx[i]];
+
+        System.arraycopy(tmp, 0, y, 0, y.length);
+
+        // Buffers must not keep references to the sorted objects.
+        Arrays.fill(tmp, 0, y.length, null);
+    }
+
+    /**
+     * Fills the index array with indices of the first {@code n} array elements sorted ascendingly by their values.
+     *
+     * @param x Array.
+     * @param n Number of sorted elements.
+     * @param idx Index array (at least {@code n} elements).
+     * @param buf Auxiliary buffers.
+     */
+    private static void argSort(double[] x, int n, int[] idx, SortBuffers buf) {
+        for (int i = 0; i < n; i++)
+            idx[i] = i;
+
+        if (isSorted(x, 0, n))
+            return;
+
+        long[] keys = buf.keys(n);
+        for (int i = 0; i < n; i++)
+            keys[i] = sortableBits(x[i]);
+
+        if (n < RADIX_THRESHOLD)
+            IntroSort.sort(keys, idx, 0, n);
+        else
+            RadixSort.sort(keys, idx, n, buf);
+    }
+
+    /**
+     * Reorders the array according to the index array.
+     *
+     * @param a Array.
+     * @param idx Index array.
+     * @param buf Auxiliary buffers.
+     */
+    private static void permute(double[] a, int[] idx, SortBuffers buf) {
+        double[] tmp = buf.doubles(a.length);
+
+        for (int i = 0; i < a.length; i++)
+            tmp[i] = a[idx[i]];
+
+        System.arraycopy(tmp, 0, a, 0, a.length);
+    }
+
+    /**
+     * Returns bit pattern of the given value which is ordered as {@code long} the same way as values are ordered by
+     * {@link Double#compare(double, double)}.
+     *
+     * @param val Value.
+     * @return Sortable bit pattern.
+     */
+    static long sortableBits(double val) {
+        long bits = Double.doubleToLongBits(val);
+
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /** */
+    private static void checkLength(double[] x, int len) {
+        if (x.length != len)
+            throw new IllegalArgumentException("Arrays have to be the same length [master=" + x.length +
+                ", dependent=" + len + "]");
+    }
+}
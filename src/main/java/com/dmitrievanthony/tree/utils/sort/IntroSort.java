@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.utils.sort;
+
+/**
+ * Introsort of {@code long} keys together with {@code int} indices: quicksort with median-of-three pivot that falls
+ * back to heapsort when recursion gets too deep (so it's never quadratic) and to insertion sort on small ranges.
+ */
+class IntroSort {
+    /** Max size of a range sorted by insertion sort. */
+    private static final int INSERTION_THRESHOLD = 16;
+
+    /**
+     * Sorts the given range of keys and applies the same permutation to indices.
+     *
+     * @param keys Keys.
+     * @param idx Indices.
+     * @param from Index of the first element (inclusive).
+     * @param to Index of the last element (exclusive).
+     */
+    static void sort(long[] keys, int[] idx, int from, int to) {
+        if (to - from > 1)
+            sort(keys, idx, from, to - 1, 2 * (31 - Integer.numberOfLeadingZeros(to - from)));
+    }
+
+    /**
+     * Sorts the given range of keys and applies the same permutation to indices.
+     *
+     * @param keys Keys.
+     * @param idx Indices.
+     * @param lo Index of the first element (inclusive).
+     * @param hi Index of the last element (inclusive).
+     * @param depth Number of quicksort partitioning levels left before falling back to heapsort.
+     */
+    private static void sort(long[] keys, int[] idx, int lo, int hi, int depth) {
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(keys, idx, lo, hi);
+                return;
+            }
+
+            int mid = (lo + hi) >>> 1;
+
+            if (keys[mid] < keys[lo])
+                swap(keys, idx, lo, mid);
+            if (keys[hi] < keys[lo])
+                swap(keys, idx, lo, hi);
+            if (keys[hi] < keys[mid])
+                swap(keys, idx, mid, hi);
+
+            long pivot = keys[mid];
+            int i = lo, j = hi;
+
+            while (i <= j) {
+                while (keys[i] < pivot)
+                    i++;
+                while (keys[j] > pivot)
+                    j--;
+
+                if (i <= j)
+                    swap(keys, idx, i++, j--);
+            }
+
+            // Recursion goes into the smaller part, so the stack depth is logarithmic.
+            if (j - lo < hi - i) {
+                sort(keys, idx, lo, j, depth);
+                lo = i;
+            }
+            else {
+                sort(keys, idx, i, hi, depth);
+                hi = j;
+            }
+        }
+
+        insertionSort(keys, idx, lo, hi);
+    }
+
+    /** */
+    private static void insertionSort(long[] keys, int[] idx, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            long key = keys[i];
+            int id = idx[i];
+
+            int j = i - 1;
+            while (j >= lo && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                idx[j + 1] = idx[j];
+                j--;
+            }
+
+            keys[j + 1] = key;
+            idx[j + 1] = id;
+        }
+    }
+
+    /** */
+    private static void heapSort(long[] keys, int[] idx, int lo, int hi) {
+        int n = hi - lo + 1;
+
+        for (int i = n / 2 - 1; i >= 0; i--)
+            siftDown(keys, idx, lo, i, n);
+
+        for (int end = n - 1; end > 0; end--) {
+            swap(keys, idx, lo, lo + end);
+            siftDown(keys, idx, lo, 0, end);
+        }
+    }
+
+    /** */
+    private static void siftDown(long[] keys, int[] idx, int lo, int node, int n) {
+        while (true) {
+            int child = 2 * node + 1;
+
+            if (child >= n)
+                return;
+
+            if (child + 1 < n && keys[lo + child + 1] > keys[lo + child])
+                child++;
+
+            if (keys[lo + node] >= keys[lo + child])
+                return;
+
+            swap(keys, idx, lo + node, lo + child);
+            node = child;
+        }
+    }
+
+    /** */
+    private static void swap(long[] keys, int[] idx, int i, int j) {
+        long tmpKey = keys[i];
+        keys[i] = keys[j];
+        keys[j] = tmpKey;
+
+        int tmpIdx = idx[i];
+        idx[i] = idx[j];
+        idx[j] = tmpIdx;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.utils.sort;
+
+/**
+ * Least significant digit radix sort of {@code long} keys together with {@code int} indices. Keys are sorted by 8-bit
+ * digits, histograms of all digits are built in a single pass and digits which are the same for all keys (like
+ * exponent bits of values of a similar magnitude) are skipped. The sort is stable.
+ */
+class RadixSort {
+    /** Number of bits in a digit. */
+    private static final int DIGIT_BITS = 8;
+
+    /** Number of distinct values of a digit. */
+    private static final int RADIX = 1 << DIGIT_BITS;
+
+    /** Number of digits in a key. */
+    private static final int DIGITS = Long.SIZE / DIGIT_BITS;
+
+    /**
+     * Sorts the first {@code n} keys (as signed values) and applies the same permutation to indices.
+     *
+     * @param keys Keys (used as a buffer, content is undefined after the call).
+     * @param idx Indices.
+     * @param n Number of elements.
+     * @param buf Auxiliary buffers.
+     */
+    static void sort(long[] keys, int[] idx, int n, SortBuffers buf) {
+        int[] cnt = buf.counts(DIGITS * RADIX);
+
+        for (int i = 0; i < n; i++) {
+            long key = keys[i];
+
+            for (int d = 0; d < DIGITS; d++)
+                cnt[d * RADIX + digit(key, d)]++;
+        }
+
+        long[] srcKeys = keys, dstKeys = buf.keysBuf(n);
+        int[] srcIdx = idx, dstIdx = buf.idxBuf(n);
+
+        for (int d = 0; d < DIGITS; d++) {
+            int off = d * RADIX;
+
+            if (cnt[off + digit(srcKeys[0], d)] == n)
+                continue;
+
+            int sum = 0;
+            for (int b = off; b < off + RADIX; b++) {
+                int c = cnt[b];
+                cnt[b] = sum;
+                sum += c;
+            }
+
+            for (int i = 0; i < n; i++) {
+                int pos = cnt[off + digit(srcKeys[i], d)]++;
+                dstKeys[pos] = srcKeys[i];
+                dstIdx[pos] = srcIdx[i];
+            }
+
+            long[] tmpKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tmpKeys;
+
+            int[] tmpIdx = srcIdx;
+            srcIdx = dstIdx;
+            dstIdx = tmpIdx;
+        }
+
+        if (srcIdx != idx)
+            System.arraycopy(srcIdx, 0, idx, 0, n);
+    }
+
+    /**
+     * Returns digit of the key. Sign bit of the most significant digit is inverted, so digits are ordered the same
+     * way as signed keys.
+     *
+     * @param key Key.
+     * @param d Digit number (starting from the least significant one).
+     * @return Digit.
+     */
+    private static int digit(long key, int d) {
+        int res = (int)(key >>> (d * DIGIT_BITS)) & (RADIX - 1);
+
+        return d == DIGITS - 1 ? res ^ (RADIX >>> 1) : res;
+    }
+}
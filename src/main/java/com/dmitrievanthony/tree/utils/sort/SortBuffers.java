@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.utils.sort;
+
+import java.util.Arrays;
+
+/**
+ * Auxiliary buffers of sort kernels. Buffers grow on demand and are reused by subsequent sorts of the same thread,
+ * buffers for arrays longer than {@link #MAX_CACHED_SIZE} are not kept. Buffers are kept by every thread which has
+ * ever sorted, so the limit is small enough to keep the footprint of a large pool of threads in the order of
+ * megabytes, longer arrays are sorted using buffers allocated for the sort.
+ */
+class SortBuffers {
+    /** Max number of elements buffers are kept for (about 3 MB for all buffers of a thread). */
+    private static final int MAX_CACHED_SIZE = 1 << 16;
+
+    /** Keys. */
+    private long[] keys = new long[0];
+
+    /** Second buffer for keys. */
+    private long[] keysBuf = new long[0];
+
+    /** Indices. */
+    private int[] idx = new int[0];
+
+    /** Second buffer for indices. */
+    private int[] idxBuf = new int[0];
+
+    /** Buffer for permuted {@code double} values. */
+    private double[] doubles = new double[0];
+
+    /** Buffer for permuted {@code int} values. */
+    private int[] ints = new int[0];
+
+    /** Buffer for permuted objects. */
+    private Object[] objects = new Object[0];
+
+    /** Digit counters. */
+    private int[] counts = new int[0];
+
+    /** */
+    long[] keys(int n) {
+        if (keys.length >= n)
+            return keys;
+
+        long[] res = new long[n];
+        if (n <= MAX_CACHED_SIZE)
+            keys = res;
+
+        return res;
+    }
+
+    /** */
+    long[] keysBuf(int n) {
+        if (keysBuf.length >= n)
+            return keysBuf;
+
+        long[] res = new long[n];
+        if (n <= MAX_CACHED_SIZE)
+            keysBuf = res;
+
+        return res;
+    }
+
+    /** */
+    int[] idx(int n) {
+        if (idx.length >= n)
+            return idx;
+
+        int[] res = new int[n];
+        if (n <= MAX_CACHED_SIZE)
+            idx = res;
+
+        return res;
+    }
+
+    /** */
+    int[] idxBuf(int n) {
+        if (idxBuf.length >= n)
+            return idxBuf;
+
+        int[] res = new int[n];
+        if (n <= MAX_CACHED_SIZE)
+            idxBuf = res;
+
+        return res;
+    }
+
+    /** */
+    double[] doubles(int n) {
+        if (doubles.length >= n)
+            return doubles;
+
+        double[] res = new double[n];
+        if (n <= MAX_CACHED_SIZE)
+            doubles = res;
+
+        return res;
+    }
+
+    /** */
+    int[] ints(int n) {
+        if (ints.length >= n)
+            return ints;
+
+        int[] res = new int[n];
+        if (n <= MAX_CACHED_SIZE)
+            ints = res;
+
+        return res;
+    }
+
+    /** */
+    Object[] objects(int n) {
+        if (objects.length >= n)
+            return objects;
+
+        Object[] res = new Object[n];
+        if (n <= MAX_CACHED_SIZE)
+            objects = res;
+
+        return res;
+    }
+
+    /**
+     * Returns zeroed digit counters.
+     *
+     * @param n Number of counters.
+     * @return Digit counters.
+     */
+    int[] counts(int n) {
+        if (counts.length < n)
+            counts = new int[n];
+        else
+            Arrays.fill(counts, 0, n, 0);
+
+        return counts;
+    }
+}
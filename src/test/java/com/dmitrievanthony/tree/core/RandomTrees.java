@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class RandomTrees {
+
+    public static Node generateTree(Random rnd, int deep) {
+        int col = rnd.nextInt(3);
+        double threshold = col == 2 ? rnd.nextInt(5) : col == 1 ? rnd.nextGaussian() : rnd.nextDouble();
+
+        return new ConditionalNode(col, threshold, generateSubtree(rnd, deep - 1), generateSubtree(rnd, deep - 1));
+    }
+
+    public static double[] generateFeatures(Random rnd) {
+        return new double[] {rnd.nextDouble(), rnd.nextGaussian(), rnd.nextInt(5)};
+    }
+
+    public static void assertSamePredictions(Node expected, Node actual) {
+        Random rnd = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            double[] features = generateFeatures(rnd);
+            assertEquals(expected.predict(features), actual.predict(features), 0);
+        }
+    }
+
+    private static Node generateSubtree(Random rnd, int deep) {
+        if (deep == 0 || rnd.nextInt(5) == 0)
+            return new LeafNode(rnd.nextGaussian());
+
+        return generateTree(rnd, deep);
+    }
+}
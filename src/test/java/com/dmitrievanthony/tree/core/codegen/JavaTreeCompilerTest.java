@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.codegen;
+
+import com.dmitrievanthony.tree.core.ConditionalNode;
+import com.dmitrievanthony.tree.core.LeafNode;
+import com.dmitrievanthony.tree.core.Node;
+import com.dmitrievanthony.tree.core.RandomTrees;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class JavaTreeCompilerTest {
+
+    @Test
+    public void testCompiledTreeMatchesTree() {
+        Node tree = RandomTrees.generateTree(new Random(0), 14);
+        Node compiled = JavaTreeCompiler.compile(tree);
+
+        assertFalse(compiled instanceof ConditionalNode);
+
+        RandomTrees.assertSamePredictions(tree, compiled);
+    }
+
+    @Test
+    public void testSpecialValues() {
+        Node tree = new ConditionalNode(0, Double.NEGATIVE_INFINITY,
+            new ConditionalNode(1, -0.1, new LeafNode(Double.POSITIVE_INFINITY), new LeafNode(Double.MIN_VALUE)),
+            new LeafNode(Double.NaN));
+
+        Node compiled = JavaTreeCompiler.compile(tree);
+
+        assertEquals(Double.NaN, compiled.predict(new double[] {Double.NEGATIVE_INFINITY, 0}), 0);
+        assertEquals(Double.POSITIVE_INFINITY, compiled.predict(new double[] {0, 0}), 0);
+        assertEquals(Double.MIN_VALUE, compiled.predict(new double[] {0, -0.1}), 0);
+    }
+
+    @Test
+    public void testSingleLeaf() {
+        assertEquals(0.1, JavaTreeCompiler.compile(new LeafNode(0.1)).predict(new double[0]), 0);
+    }
+}
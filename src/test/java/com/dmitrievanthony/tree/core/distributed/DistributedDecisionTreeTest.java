@@ -0,0 +1,499 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed;
+
+import com.dmitrievanthony.tree.core.ConditionalNode;
+import com.dmitrievanthony.tree.core.LeafNode;
+import com.dmitrievanthony.tree.core.Node;
+import com.dmitrievanthony.tree.core.distributed.criteria.GiniImpurityMeasure;
+import com.dmitrievanthony.tree.core.distributed.criteria.MSEImpurityMeasure;
+import com.dmitrievanthony.tree.core.distributed.criteria.MSEImpurityMeasureCalculator;
+import com.dmitrievanthony.tree.core.distributed.criteria.PrimitiveStepFunction;
+import com.dmitrievanthony.tree.core.distributed.criteria.SimpleStepFunctionCompressor;
+import com.dmitrievanthony.tree.core.distributed.dataset.Dataset;
+import com.dmitrievanthony.tree.core.distributed.dataset.Partition;
+import com.dmitrievanthony.tree.core.distributed.dataset.backend.MultiProcessComputeBackend;
+import com.dmitrievanthony.tree.utils.sort.DoubleSort;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DistributedDecisionTreeTest {
+
+    private static final int PARTS = 4;
+
+    private static final int ROWS = 200;
+
+    @Test
+    public void testLevelWiseClassifierMatchesDepthFirst() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][0] > 0.3 ? (x[i][1] > 0.6 ? 1 : 2) : 0;
+
+        Dataset dataset = createDataset(x, y);
+
+        Node depthFirst = new DistributedDecisionTreeClassifier(4, 0).fit(dataset);
+        Node levelWise = new DistributedDecisionTreeClassifier(4, 0, true).fit(dataset);
+
+        assertSamePredictions(x, depthFirst, levelWise);
+        assertSamePredictions(x, y, levelWise);
+    }
+
+    @Test
+    public void testLevelWiseRegressorMatchesDepthFirst() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = Math.sin(5 * x[i][0]) + x[i][1];
+
+        Dataset dataset = createDataset(x, y);
+
+        Node depthFirst = new DistributedDecisionTreeRegressor(5, 0).fit(dataset);
+        Node levelWise = new DistributedDecisionTreeRegressor(5, 0, true).fit(dataset);
+
+        assertSamePredictions(x, depthFirst, levelWise);
+    }
+
+    @Test
+    public void testPresortedClassifierMatchesDefault() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][2] > 2 ? (x[i][1] > 0.6 ? 1 : 2) : 0;
+
+        Dataset dataset = createDataset(x, y);
+
+        Node expected = new DistributedDecisionTreeClassifier(4, 0).fit(dataset);
+        Node presorted = new DistributedDecisionTreeClassifier(4, 0, true, classifierConfig().withPresorting(true))
+            .fit(dataset);
+
+        assertSamePredictions(x, expected, presorted);
+    }
+
+    @Test
+    public void testPresortedRegressorMatchesDefault() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = Math.sin(5 * x[i][0]) + x[i][1];
+
+        Dataset dataset = createDataset(x, y);
+
+        Node expected = new DistributedDecisionTreeRegressor(5, 0).fit(dataset);
+        Node presorted = new DistributedDecisionTreeRegressor(5, 0, false, regressorConfig().withPresorting(true))
+            .fit(dataset);
+
+        assertSamePredictions(x, expected, presorted);
+    }
+
+    @Test
+    public void testSiblingSubtractionClassifierMatchesDefault() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][2] > 2 ? (x[i][1] > 0.6 ? 1 : 2) : 0;
+
+        Dataset dataset = createDataset(x, y);
+
+        Node expected = new DistributedDecisionTreeClassifier(4, 0).fit(dataset);
+
+        assertSamePredictions(x, expected,
+            new DistributedDecisionTreeClassifier(4, 0, false, classifierConfig().withSiblingSubtraction(true))
+                .fit(dataset));
+        assertSamePredictions(x, expected,
+            new DistributedDecisionTreeClassifier(4, 0, true, classifierConfig().withSiblingSubtraction(true))
+                .fit(dataset));
+    }
+
+    @Test
+    public void testSiblingSubtractionRegressorMatchesDefault() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = Math.sin(5 * x[i][0]) + x[i][1];
+
+        Dataset dataset = createDataset(x, y);
+
+        DistributedDecisionTreeConfig<MSEImpurityMeasure> cfg = regressorConfig().withHistogram(16);
+
+        Node expected = new DistributedDecisionTreeRegressor(5, 0, false, cfg).fit(dataset);
+
+        assertSamePredictions(x, expected,
+            new DistributedDecisionTreeRegressor(5, 0, false, cfg.withSiblingSubtraction(true)).fit(dataset));
+        assertSamePredictions(x, expected,
+            new DistributedDecisionTreeRegressor(5, 0, true, cfg.withSiblingSubtraction(true)).fit(dataset));
+    }
+
+    @Test
+    public void testDirectBuffersMatchHeap() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][2] > 2 ? (x[i][1] > 0.6 ? 1 : 2) : 0;
+
+        Node expected = new DistributedDecisionTreeClassifier(4, 0).fit(createDataset(x, y));
+
+        Set<Partition> parts = new LinkedHashSet<>();
+
+        for (int p = 0; p < PARTS; p++) {
+            DoubleBuffer[] columns = new DoubleBuffer[x[0].length];
+            for (int col = 0; col < columns.length; col++)
+                columns[col] = ByteBuffer.allocateDirect(ROWS * Double.BYTES).asDoubleBuffer();
+
+            DoubleBuffer labels = ByteBuffer.allocateDirect(ROWS * Double.BYTES).asDoubleBuffer();
+
+            for (int i = 0; i < ROWS; i++) {
+                for (int col = 0; col < columns.length; col++)
+                    columns[col].put(i, x[p * ROWS + i][col]);
+
+                labels.put(i, y[p * ROWS + i]);
+            }
+
+            parts.add(Partition.ofBuffers(columns, labels));
+        }
+
+        assertSamePredictions(x, expected, new DistributedDecisionTreeClassifier(4, 0).fit(new Dataset(parts)));
+    }
+
+    @Test
+    public void testStreamedPartitionsMatchResident() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][0] > 0.3 ? (x[i][1] > 0.6 ? 1 : 2) : 0;
+
+        DistributedDecisionTreeConfig<GiniImpurityMeasure> cfg = classifierConfig().withHistogram(4096);
+
+        Node expected = new DistributedDecisionTreeClassifier(4, 0, false, cfg).fit(createDataset(x, y));
+
+        Node streamed = new DistributedDecisionTreeClassifier(4, 0, false, cfg)
+            .fit(new Dataset(createStreamedPartitions(x, y)));
+
+        assertSamePredictions(x, expected, streamed);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStreamedPartitionsRequireHistogram() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+
+        new DistributedDecisionTreeRegressor(4, 0).fit(new Dataset(createStreamedPartitions(x, y)));
+    }
+
+    @Test
+    public void testMultiProcessBackendMatchesLocal() throws Exception {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][0] > 0.3 ? (x[i][1] > 0.6 ? 1 : 2) : 0;
+
+        Node expected = new DistributedDecisionTreeClassifier(4, 0, true).fit(createDataset(x, y));
+
+        try (MultiProcessComputeBackend backend = new MultiProcessComputeBackend(2)) {
+            Dataset remote = new Dataset(createPartitions(x, y), backend);
+
+            assertSamePredictions(x, expected, new DistributedDecisionTreeClassifier(4, 0, true).fit(remote));
+            assertSamePredictions(x, expected,
+                new DistributedDecisionTreeClassifier(4, 0, true, classifierConfig().withHistogram(4096)).fit(remote));
+        }
+    }
+
+    @Test
+    public void testMultiProcessBackendWithUnevenWorkersMatchesLocal() throws Exception {
+        Random rnd = new Random(1);
+
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][0] * 10 + rnd.nextGaussian() * Math.pow(10, rnd.nextInt(12));
+
+        Node expected = new DistributedDecisionTreeRegressor(4, 0, true).fit(new Dataset(createPartitions(x, y, 9)));
+
+        try (MultiProcessComputeBackend backend = new MultiProcessComputeBackend(3)) {
+            Dataset remote = new Dataset(createPartitions(x, y, 9), backend);
+
+            assertSameTree(expected, new DistributedDecisionTreeRegressor(4, 0, true).fit(remote));
+        }
+    }
+
+    @Test
+    public void testConcurrentFitsOnSameDataset() throws Exception {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = Math.sin(5 * x[i][0]) + x[i][1];
+
+        Dataset dataset = createDataset(x, y);
+
+        Node deep = new DistributedDecisionTreeRegressor(6, 0).fit(dataset);
+        Node shallow = new DistributedDecisionTreeRegressor(3, 0, true).fit(dataset);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Node>> deepFits = new ArrayList<>();
+            List<Future<Node>> shallowFits = new ArrayList<>();
+
+            for (int i = 0; i < 8; i++) {
+                deepFits.add(executor.submit(() -> new DistributedDecisionTreeRegressor(6, 0).fit(dataset)));
+                shallowFits.add(executor.submit(() -> new DistributedDecisionTreeRegressor(3, 0, true).fit(dataset)));
+            }
+
+            for (Future<Node> fit : deepFits)
+                assertSameTree(deep, fit.get());
+
+            for (Future<Node> fit : shallowFits)
+                assertSameTree(shallow, fit.get());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConfigIsNotChangedByWithMethods() {
+        DistributedDecisionTreeConfig<MSEImpurityMeasure> cfg = regressorConfig();
+        DistributedDecisionTreeConfig<MSEImpurityMeasure> changed = cfg.withHistogram(16).withPresorting(true);
+
+        assertEquals(0, cfg.getMaxBins());
+        assertFalse(cfg.isPresorting());
+        assertEquals(16, changed.getMaxBins());
+        assertTrue(changed.isPresorting());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConfigWithSingleBin() {
+        regressorConfig().withHistogram(1);
+    }
+
+    @Test
+    public void testHistogramClassifierWithEnoughBinsMatchesExact() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][0] > 0.3 ? (x[i][1] > 0.6 ? 1 : 2) : 0;
+
+        Dataset dataset = createDataset(x, y);
+
+        Node exact = new DistributedDecisionTreeClassifier(4, 0).fit(dataset);
+        Node hist = new DistributedDecisionTreeClassifier(4, 0, true, classifierConfig().withHistogram(4096))
+            .fit(dataset);
+
+        assertSamePredictions(x, exact, hist);
+    }
+
+    @Test
+    public void testHistogramClassifier() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][0] > 0.3 ? (x[i][1] > 0.6 ? 1 : 2) : 0;
+
+        Dataset dataset = createDataset(x, y);
+
+        Node hist = new DistributedDecisionTreeClassifier(4, 0, true, classifierConfig().withHistogram(32))
+            .fit(dataset);
+
+        int errors = 0;
+        for (int i = 0; i < x.length; i++)
+            errors += hist.predict(x[i]) == y[i] ? 0 : 1;
+
+        assertTrue(errors < x.length / 20);
+    }
+
+    @Test
+    public void testCompressedClassifier() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][0] > 0.3 ? (x[i][1] > 0.6 ? 1 : 2) : 0;
+
+        Dataset dataset = createDataset(x, y);
+
+        Node compressed = new DistributedDecisionTreeClassifier(4, 0, false,
+            classifierConfig().withCompressor(new SimpleStepFunctionCompressor<>(16, 1e-3))).fit(dataset);
+
+        int errors = 0;
+        for (int i = 0; i < x.length; i++)
+            errors += compressed.predict(x[i]) == y[i] ? 0 : 1;
+
+        assertTrue(errors < x.length / 20);
+    }
+
+    @Test
+    public void testCompressedSplitMatchesEvaluatedCounts() {
+        Random rnd = new Random(3);
+
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][0] * 10 + rnd.nextGaussian();
+
+        SimpleStepFunctionCompressor<MSEImpurityMeasure> compressor = new SimpleStepFunctionCompressor<>(8);
+
+        Node root = new DistributedDecisionTreeRegressor(1, 0, false, regressorConfig().withCompressor(compressor))
+            .fit(new Dataset(createPartitions(x, y, 1)));
+
+        ConditionalNode split = (ConditionalNode)root;
+
+        double[] col = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            col[i] = x[i][split.getCol()];
+
+        double[] labels = y.clone();
+        DoubleSort.sort(col, labels);
+
+        MSEImpurityMeasureCalculator calc = new MSEImpurityMeasureCalculator();
+        PrimitiveStepFunction fn = compressor.compress(calc.calculatePrimitive(col, labels), calc);
+
+        int step = 0;
+        while (step + 1 < fn.size() && fn.getX()[step + 1] <= split.getThreshold())
+            step++;
+
+        double elseCnt = calc.getCount(fn.getLeft(), step * fn.getStatisticsSize());
+        double thenCnt = calc.getCount(fn.getTotal(), 0) - elseCnt;
+
+        int actualElseCnt = 0, actualThenCnt = 0;
+        for (double val : col) {
+            if (val > split.getThreshold())
+                actualThenCnt++;
+            else
+                actualElseCnt++;
+        }
+
+        assertEquals(elseCnt, actualElseCnt, 0);
+        assertEquals(thenCnt, actualThenCnt, 0);
+    }
+
+    @Test
+    public void testHistogramRegressor() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][2] * 10;
+
+        Dataset dataset = createDataset(x, y);
+
+        Node hist = new DistributedDecisionTreeRegressor(6, 0, false, regressorConfig().withHistogram(8)).fit(dataset);
+
+        assertSamePredictions(x, y, hist);
+    }
+
+    private static void assertSamePredictions(double[][] x, Node expected, Node actual) {
+        for (double[] row : x)
+            assertEquals(expected.predict(row), actual.predict(row), 0);
+    }
+
+    private static void assertSamePredictions(double[][] x, double[] y, Node actual) {
+        for (int i = 0; i < x.length; i++)
+            assertEquals(y[i], actual.predict(x[i]), 0);
+    }
+
+    private static void assertSameTree(Node expected, Node actual) {
+        if (expected instanceof ConditionalNode) {
+            ConditionalNode expectedNode = (ConditionalNode)expected;
+            ConditionalNode actualNode = (ConditionalNode)actual;
+
+            assertEquals(expectedNode.getCol(), actualNode.getCol());
+            assertEquals(expectedNode.getThreshold(), actualNode.getThreshold(), 0);
+
+            assertSameTree(expectedNode.getThenNode(), actualNode.getThenNode());
+            assertSameTree(expectedNode.getElseNode(), actualNode.getElseNode());
+        }
+        else
+            assertEquals(((LeafNode)expected).getVal(), ((LeafNode)actual).getVal(), 0);
+    }
+
+    private static DistributedDecisionTreeConfig<GiniImpurityMeasure> classifierConfig() {
+        return new DistributedDecisionTreeConfig<>();
+    }
+
+    private static DistributedDecisionTreeConfig<MSEImpurityMeasure> regressorConfig() {
+        return new DistributedDecisionTreeConfig<>();
+    }
+
+    private static double[][] generateFeatures() {
+        Random rnd = new Random(0);
+        double[][] x = new double[PARTS * ROWS][];
+
+        for (int i = 0; i < x.length; i++)
+            x[i] = new double[] {rnd.nextDouble(), rnd.nextDouble(), rnd.nextInt(5)};
+
+        return x;
+    }
+
+    private static Dataset createDataset(double[][] x, double[] y) {
+        return new Dataset(createPartitions(x, y));
+    }
+
+    private static Set<Partition> createStreamedPartitions(double[][] x, double[] y) {
+        Set<Partition> parts = new LinkedHashSet<>();
+
+        for (int p = 0; p < PARTS; p++) {
+            int partOff = p * ROWS;
+
+            parts.add(Partition.ofChunks(ROWS, x[0].length, 37, (from, cnt, columns, labels) -> {
+                for (int i = 0; i < cnt; i++) {
+                    for (int col = 0; col < columns.length; col++)
+                        columns[col].put(i, x[partOff + from + i][col]);
+
+                    labels.put(i, y[partOff + from + i]);
+                }
+            }));
+        }
+
+        return parts;
+    }
+
+    private static Set<Partition> createPartitions(double[][] x, double[] y) {
+        return createPartitions(x, y, PARTS);
+    }
+
+    private static Set<Partition> createPartitions(double[][] x, double[] y, int partsCnt) {
+        Set<Partition> parts = new LinkedHashSet<>();
+
+        for (int p = 0; p < partsCnt; p++) {
+            int from = x.length * p / partsCnt;
+            int to = x.length * (p + 1) / partsCnt;
+
+            double[][] features = new double[to - from][];
+            double[] labels = new double[to - from];
+
+            for (int i = from; i < to; i++) {
+                features[i - from] = x[i].clone();
+                labels[i - from] = y[i];
+            }
+
+            parts.add(new Partition(features, labels));
+        }
+
+        return parts;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed.criteria;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class GiniImpurityMeasureCalculatorTest {
+
+    @Test
+    public void testCalculate() {
+        Map<Double, Integer> encoder = new HashMap<>();
+        encoder.put(0.0, 0);
+        encoder.put(1.0, 1);
+
+        GiniImpurityMeasureCalculator calc = new GiniImpurityMeasureCalculator(encoder);
+
+        StepFunction<GiniImpurityMeasure> fn = calc.calculate(new double[] {1, 1, 2, 3}, new double[] {0, 1, 1, 0});
+
+        assertArrayEquals(new double[] {Double.NEGATIVE_INFINITY, 1, 2, 3}, fn.getX(), 1e-12);
+
+        GiniImpurityMeasure[] y = fn.getY();
+
+        assertEquals(4, y.length);
+        assertEquals(-2.0, y[0].impurity(), 1e-12);
+        assertEquals(-2.0, y[1].impurity(), 1e-12);
+        assertEquals(-8.0 / 3, y[2].impurity(), 1e-12);
+        assertEquals(-2.0, y[3].impurity(), 1e-12);
+    }
+
+    @Test
+    public void testCalculateOnLargeColumn() {
+        Map<Double, Integer> encoder = new HashMap<>();
+        encoder.put(0.0, 0);
+        encoder.put(1.0, 1);
+
+        GiniImpurityMeasureCalculator calc = new GiniImpurityMeasureCalculator(encoder);
+
+        int size = 300_000;
+        double[] x = new double[size];
+        double[] labels = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            x[i] = i / 3;
+            labels[i] = x[i] < size / 6 ? 0 : 1;
+        }
+
+        StepFunction<GiniImpurityMeasure> fn = calc.calculate(x, labels);
+
+        assertEquals(size / 3 + 1, fn.getX().length);
+        assertEquals(-size, fn.getY()[size / 6].impurity(), 1e-6);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed.criteria;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MSEImpurityMeasureCalculatorTest {
+
+    private final MSEImpurityMeasureCalculator calc = new MSEImpurityMeasureCalculator();
+
+    @Test
+    public void testCalculate() {
+        StepFunction<MSEImpurityMeasure> fn = calc.calculate(new double[] {1, 1, 2, 3}, new double[] {1, 3, 2, 6});
+
+        assertArrayEquals(new double[] {Double.NEGATIVE_INFINITY, 1, 2, 3}, fn.getX(), 1e-12);
+
+        MSEImpurityMeasure[] y = fn.getY();
+
+        assertEquals(4, y.length);
+        assertEquals(14.0, y[0].impurity(), 1e-9);
+        assertEquals(2.0 + 8.0, y[1].impurity(), 1e-9);
+        assertEquals(2.0, y[2].impurity(), 1e-9);
+        assertEquals(14.0, y[3].impurity(), 1e-9);
+    }
+
+    @Test
+    public void testCalculateOnLargeColumn() {
+        int size = 300_000;
+        double[] x = new double[size];
+        double[] labels = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            x[i] = i / 3;
+            labels[i] = x[i] < size / 6 ? 1 : 2;
+        }
+
+        StepFunction<MSEImpurityMeasure> fn = calc.calculate(x, labels);
+
+        assertEquals(size / 3 + 1, fn.getX().length);
+        assertEquals(0, fn.getY()[size / 6].impurity(), 1e-6);
+    }
+}
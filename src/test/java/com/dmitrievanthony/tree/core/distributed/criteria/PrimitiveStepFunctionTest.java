@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed.criteria;
+
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class PrimitiveStepFunctionTest {
+
+    private final MSEImpurityMeasureCalculator calc = new MSEImpurityMeasureCalculator();
+
+    @Test
+    public void testAdd() {
+        PrimitiveStepFunction a = calc.calculatePrimitive(new double[] {1, 2}, new double[] {1, 2});
+        PrimitiveStepFunction b = calc.calculatePrimitive(new double[] {1, 1.5, 2.5}, new double[] {3, 4, 5});
+
+        PrimitiveStepFunction c = a.add(b);
+
+        assertArrayEquals(new double[] {Double.NEGATIVE_INFINITY, 1, 1.5, 2, 2.5}, c.getX(), 1e-12);
+        assertArrayEquals(new double[] {15, 55, 5}, c.getTotal(), 1e-12);
+        assertArrayEquals(new double[] {
+            0, 0, 0,
+            4, 10, 2,
+            8, 26, 3,
+            10, 30, 4,
+            15, 55, 5
+        }, c.getLeft(), 1e-12);
+    }
+
+    @Test
+    public void testAddMatchesCalculateOnUnion() {
+        Random rnd = new Random(0);
+
+        double[] x = new double[1000];
+        double[] labels = new double[x.length];
+
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i / 4;
+            labels[i] = rnd.nextInt(10);
+        }
+
+        double[] aX = new double[x.length / 2], aLabels = new double[x.length / 2];
+        double[] bX = new double[x.length / 2], bLabels = new double[x.length / 2];
+
+        for (int i = 0; i < x.length; i++) {
+            if (i % 2 == 0) {
+                aX[i / 2] = x[i];
+                aLabels[i / 2] = labels[i];
+            }
+            else {
+                bX[i / 2] = x[i];
+                bLabels[i / 2] = labels[i];
+            }
+        }
+
+        PrimitiveStepFunction expected = calc.calculatePrimitive(x, labels);
+        PrimitiveStepFunction actual = calc.calculatePrimitive(aX, aLabels).add(calc.calculatePrimitive(bX, bLabels));
+
+        assertArrayEquals(expected.getX(), actual.getX(), 0);
+        assertArrayEquals(expected.getLeft(), actual.getLeft(), 1e-9);
+        assertArrayEquals(expected.getTotal(), actual.getTotal(), 1e-9);
+    }
+
+    @Test
+    public void testSubtract() {
+        PrimitiveStepFunction a = calc.calculatePrimitive(new double[] {1, 2}, new double[] {1, 2});
+        PrimitiveStepFunction b = calc.calculatePrimitive(new double[] {1, 1.5, 2.5}, new double[] {3, 4, 5});
+
+        PrimitiveStepFunction c = a.add(b).subtract(b, calc);
+
+        assertArrayEquals(a.getX(), c.getX(), 0);
+        assertArrayEquals(a.getLeft(), c.getLeft(), 1e-12);
+        assertArrayEquals(a.getTotal(), c.getTotal(), 1e-12);
+    }
+
+    @Test
+    public void testImpurityMatchesImpurityMeasure() {
+        double[] x = {1, 1, 2, 3, 5, 5, 5};
+        double[] labels = {1, 3, 2, 6, 0, 4, 1};
+
+        StepFunction<MSEImpurityMeasure> expected = calc.calculate(x, labels);
+        PrimitiveStepFunction actual = calc.calculatePrimitive(x, labels);
+
+        double[] buf = new double[actual.getStatisticsSize()];
+
+        assertEquals(expected.getY().length, actual.size());
+
+        for (int i = 0; i < actual.size(); i++)
+            assertEquals(expected.getY()[i].impurity(), actual.impurity(i, calc, buf), 1e-9);
+    }
+}
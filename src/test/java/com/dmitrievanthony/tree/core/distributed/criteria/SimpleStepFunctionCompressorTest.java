@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed.criteria;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SimpleStepFunctionCompressorTest {
+
+    private final MSEImpurityMeasureCalculator calc = new MSEImpurityMeasureCalculator();
+
+    @Test
+    public void testCompressToMaxPoints() {
+        double[] x = new double[100];
+        double[] labels = new double[x.length];
+
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i;
+            labels[i] = i % 7;
+        }
+
+        PrimitiveStepFunction function = calc.calculatePrimitive(x, labels);
+        PrimitiveStepFunction compressed = new SimpleStepFunctionCompressor<MSEImpurityMeasure>(10)
+            .compress(function, calc);
+
+        assertEquals(10, compressed.size());
+        assertEquals(Double.NEGATIVE_INFINITY, compressed.getX()[0], 0);
+        assertEquals(99, compressed.getX()[9], 0);
+        assertArrayEquals(function.getTotal(), compressed.getTotal(), 0);
+
+        double[] buf = new double[calc.getStatisticsSize()];
+        for (int i = 0; i < compressed.size(); i++) {
+            int step = (int)compressed.getX()[i] + 1;
+            assertEquals(function.impurity(i == 0 ? 0 : step, calc, buf), compressed.impurity(i, calc, buf), 1e-9);
+        }
+    }
+
+    @Test
+    public void testCompressWithMaxImpurityError() {
+        double[] x = {1, 2, 3, 4, 5, 6};
+        double[] labels = {0, 1, 0, 10, 11, 10};
+
+        PrimitiveStepFunction function = calc.calculatePrimitive(x, labels);
+
+        PrimitiveStepFunction exact = new SimpleStepFunctionCompressor<MSEImpurityMeasure>(100, 0)
+            .compress(function, calc);
+        PrimitiveStepFunction coarse = new SimpleStepFunctionCompressor<MSEImpurityMeasure>(100, 1e9)
+            .compress(function, calc);
+
+        assertSame(function, exact);
+        assertArrayEquals(new double[] {Double.NEGATIVE_INFINITY, 6}, coarse.getX(), 0);
+        assertArrayEquals(function.getTotal(),
+            Arrays.copyOfRange(coarse.getLeft(), coarse.getStatisticsSize(), 2 * coarse.getStatisticsSize()), 1e-9);
+    }
+
+    @Test
+    public void testCompressSmallFunction() {
+        PrimitiveStepFunction function = calc.calculatePrimitive(new double[] {1, 2, 3}, new double[] {1, 5, 3});
+
+        assertSame(function, new SimpleStepFunctionCompressor<MSEImpurityMeasure>(10).compress(function, calc));
+    }
+
+    @Test
+    public void testCompressStepFunction() {
+        double[] x = new double[50];
+        double[] labels = new double[x.length];
+
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i;
+            labels[i] = i;
+        }
+
+        StepFunction<MSEImpurityMeasure> function = calc.calculate(x, labels);
+        StepFunction<MSEImpurityMeasure> compressed = new SimpleStepFunctionCompressor<MSEImpurityMeasure>(5)
+            .compress(function);
+
+        assertEquals(5, compressed.getX().length);
+        assertEquals(function.getX()[0], compressed.getX()[0], 0);
+        assertEquals(function.getX()[function.getX().length - 1], compressed.getX()[4], 0);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed.criteria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class StepFunctionMergerTest {
+
+    private final MSEImpurityMeasureCalculator calc = new MSEImpurityMeasureCalculator();
+
+    @Test
+    public void testMergeMatchesAdd() {
+        Random rnd = new Random(0);
+
+        StepFunctionMerger merger = new StepFunctionMerger();
+
+        for (int iter = 0; iter < 10; iter++) {
+            List<PrimitiveStepFunction> functions = new ArrayList<>();
+
+            for (int f = 0; f < 5; f++) {
+                double[] x = new double[rnd.nextInt(100)];
+                double[] labels = new double[x.length];
+
+                for (int i = 0; i < x.length; i++) {
+                    x[i] = rnd.nextInt(50);
+                    labels[i] = rnd.nextInt(10);
+                }
+
+                Arrays.sort(x);
+
+                functions.add(calc.calculatePrimitive(x, labels));
+            }
+
+            PrimitiveStepFunction expected = functions.get(0);
+            for (int f = 1; f < functions.size(); f++)
+                expected = expected.add(functions.get(f));
+
+            PrimitiveStepFunction actual = merger.merge(functions);
+
+            assertArrayEquals(expected.getX(), actual.getX(), 0);
+            assertArrayEquals(expected.getLeft(), actual.getLeft(), 1e-9);
+            assertArrayEquals(expected.getTotal(), actual.getTotal(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testMergeOfPair() {
+        StepFunctionMerger merger = new StepFunctionMerger();
+
+        PrimitiveStepFunction a = calc.calculatePrimitive(new double[] {1, 3, 5}, new double[] {1, 2, 3});
+        PrimitiveStepFunction b = calc.calculatePrimitive(new double[] {2, 3}, new double[] {4, 5});
+
+        PrimitiveStepFunction expected = a.add(b);
+        PrimitiveStepFunction actual = merger.merge(a, b);
+
+        assertArrayEquals(expected.getX(), actual.getX(), 0);
+        assertArrayEquals(expected.getLeft(), actual.getLeft(), 1e-9);
+        assertArrayEquals(expected.getTotal(), actual.getTotal(), 1e-9);
+
+        assertSame(a, merger.merge(a, null));
+        assertSame(b, merger.merge(null, b));
+    }
+
+    @Test
+    public void testMergeOfSingleFunction() {
+        PrimitiveStepFunction function = calc.calculatePrimitive(new double[] {1, 2}, new double[] {1, 2});
+
+        assertSame(function, new StepFunctionMerger().merge(Collections.singletonList(function)));
+        assertNull(new StepFunctionMerger().merge(Collections.<PrimitiveStepFunction>emptyList()));
+    }
+}
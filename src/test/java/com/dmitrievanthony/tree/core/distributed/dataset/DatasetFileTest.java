@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed.dataset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DatasetFileTest {
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Path file = Files.createTempFile("dataset", ".bin");
+
+        try {
+            try (DatasetFileWriter writer = new DatasetFileWriter(file, 2, true)) {
+                writer.write(new double[][] {{1, 2, 3}, {-1, 5, 0}}, new double[] {0, 1, 0});
+                writer.write(new Partition(new double[][] {{7, 8}}, new double[] {1}));
+                writer.write(new double[][] {{}, {}}, new double[] {});
+            }
+
+            try (DatasetFileReader reader = new DatasetFileReader(file)) {
+                assertEquals(2, reader.getColumnsCnt());
+                assertEquals(3, reader.getBlocksCnt());
+                assertEquals(3, reader.getRowsCnt(0));
+                assertEquals(1, reader.getRowsCnt(1));
+                assertEquals(0, reader.getRowsCnt(2));
+
+                assertTrue(reader.hasStatistics());
+                assertEquals(1, reader.getMin(0, 0), 0);
+                assertEquals(3, reader.getMax(0, 0), 0);
+                assertEquals(-1, reader.getMin(0, 1), 0);
+                assertEquals(5, reader.getMax(0, 1), 0);
+                assertEquals(8, reader.getMax(1, 1), 0);
+
+                Partition part = reader.readPartition(0);
+
+                assertEquals(3, part.getRowsCnt());
+                assertEquals(1, part.getLabels().get(1), 0);
+                assertEquals(3, part.getColumn(0).get(2), 0);
+                assertEquals(5, part.getColumn(1).get(1), 0);
+
+                part = reader.readPartition(1);
+
+                assertEquals(7, part.getColumn(0).get(0), 0);
+                assertEquals(8, part.getColumn(1).get(0), 0);
+            }
+
+            Dataset dataset = DatasetFileReader.readDataset(file);
+
+            assertEquals(4, dataset.compute(Partition::getRowsCnt, (a, b) -> a + b).intValue());
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testStreamPartition() throws IOException {
+        Path file = Files.createTempFile("dataset", ".bin");
+
+        try {
+            double[] labels = new double[10];
+            double[][] columns = new double[2][labels.length];
+
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = i % 2;
+                columns[0][i] = i;
+                columns[1][i] = -i;
+            }
+
+            try (DatasetFileWriter writer = new DatasetFileWriter(file, 2, false)) {
+                writer.write(new double[][] {{42}, {42}}, new double[] {42});
+                writer.write(columns, labels);
+            }
+
+            Partition part;
+            try (DatasetFileReader reader = new DatasetFileReader(file)) {
+                part = reader.streamPartition(1, 4);
+            }
+
+            assertTrue(part.isStreamed());
+            assertEquals(10, part.getRowsCnt());
+
+            int row = 0, chunks = 0;
+            for (Partition chunk : part.getChunks()) {
+                assertFalse(chunk.isStreamed());
+
+                for (int i = 0; i < chunk.getRowsCnt(); i++, row++) {
+                    assertEquals(labels[row], chunk.getLabels().get(i), 0);
+                    assertEquals(columns[0][row], chunk.getColumn(0).get(i), 0);
+                    assertEquals(columns[1][row], chunk.getColumn(1).get(i), 0);
+                }
+
+                chunks++;
+            }
+
+            assertEquals(10, row);
+            assertEquals(3, chunks);
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testWriteWithoutStatistics() throws IOException {
+        Path file = Files.createTempFile("dataset", ".bin");
+
+        try {
+            try (DatasetFileWriter writer = new DatasetFileWriter(file, 1, false)) {
+                writer.write(new double[][] {{1, 2}}, new double[] {0, 1});
+            }
+
+            try (DatasetFileReader reader = new DatasetFileReader(file)) {
+                assertFalse(reader.hasStatistics());
+                assertEquals(2, reader.readPartition(0).getColumn(0).get(1), 0);
+            }
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadNotDatasetFile() throws IOException {
+        Path file = Files.createTempFile("dataset", ".bin");
+
+        try {
+            Files.write(file, new byte[64]);
+
+            new DatasetFileReader(file).close();
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+}
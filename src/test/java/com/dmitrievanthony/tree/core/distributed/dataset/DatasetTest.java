@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed.dataset;
+
+import com.dmitrievanthony.tree.core.distributed.dataset.backend.MultiProcessComputeBackend;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DatasetTest {
+
+    @Test
+    public void testComputeVisitsAllPartitions() {
+        Dataset dataset = new Dataset(createPartitions(17), true);
+
+        Integer rows = dataset.compute(Partition::getRowsCnt, (a, b) -> a + b);
+
+        assertEquals(17 * 100, rows.intValue());
+    }
+
+    @Test
+    public void testParallelComputeIsDeterministic() {
+        Set<Partition> partitions = createPartitions(33);
+
+        Dataset sequential = new Dataset(partitions);
+        Dataset parallel = new Dataset(partitions, new ForkJoinPool(4));
+
+        for (int i = 0; i < 10; i++) {
+            double expected = sequential.compute(DatasetTest::sum, Double::sum);
+            double actual = parallel.compute(DatasetTest::sum, Double::sum);
+
+            assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+        }
+    }
+
+    @Test
+    public void testMultiProcessComputeMatchesSequential() throws Exception {
+        Set<Partition> partitions = createPartitions(9);
+
+        double expected = new Dataset(partitions).compute(DatasetTest::sum, Double::sum);
+
+        try (MultiProcessComputeBackend backend = new MultiProcessComputeBackend(2)) {
+            Dataset dataset = new Dataset(partitions, backend);
+
+            for (int i = 0; i < 3; i++) {
+                double actual = dataset.compute(DatasetTest::sum, Double::sum);
+
+                assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+            }
+        }
+    }
+
+    @Test
+    public void testMultiProcessComputeWithUnevenWorkersMatchesSequential() throws Exception {
+        Set<Partition> partitions = createPartitions(9);
+
+        double expected = new Dataset(partitions).compute(DatasetTest::sum, Double::sum);
+        String expectedOrder = new Dataset(partitions).compute(part -> "p", (a, b) -> "(" + a + b + ")");
+
+        try (MultiProcessComputeBackend backend = new MultiProcessComputeBackend(3)) {
+            Dataset dataset = new Dataset(partitions, backend);
+
+            double actual = dataset.compute(DatasetTest::sum, Double::sum);
+            String actualOrder = dataset.compute(part -> "p", (a, b) -> "(" + a + b + ")");
+
+            assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+            assertEquals(expectedOrder, actualOrder);
+        }
+    }
+
+    @Test
+    public void testMultiProcessBackendSharedByDatasetsWithSamePartitions() throws Exception {
+        Set<Partition> partitions = createPartitions(5);
+
+        double expected = new Dataset(partitions).compute(DatasetTest::sum, Double::sum);
+
+        try (MultiProcessComputeBackend backend = new MultiProcessComputeBackend(2)) {
+            String sentPartitions = new Dataset(partitions, backend).compute(
+                part -> String.valueOf(System.identityHashCode(part)),
+                (a, b) -> a + "," + b
+            );
+
+            Dataset dataset = new Dataset(partitions, backend);
+
+            // Partitions are not sent again, so workers still keep the same partition objects.
+            String keptPartitions = dataset.compute(
+                part -> String.valueOf(System.identityHashCode(part)),
+                (a, b) -> a + "," + b
+            );
+            double actual = dataset.compute(DatasetTest::sum, Double::sum);
+
+            assertEquals(sentPartitions, keptPartitions);
+            assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMultiProcessBackendSharedByDatasetsWithDifferentPartitions() throws Exception {
+        try (MultiProcessComputeBackend backend = new MultiProcessComputeBackend(2)) {
+            new Dataset(createPartitions(5), backend).compute(DatasetTest::sum, Double::sum);
+            new Dataset(createPartitions(5), backend).compute(DatasetTest::sum, Double::sum);
+        }
+    }
+
+    @Test
+    public void testComputeOnEmptyDataset() {
+        Dataset dataset = new Dataset(new LinkedHashSet<>(), true);
+
+        assertNull(dataset.compute(part -> 1, (a, b) -> a + b));
+    }
+
+    private static double sum(Partition part) {
+        double res = 0;
+
+        for (int i = 0; i < part.getRowsCnt(); i++)
+            res += part.getLabels().get(i);
+
+        return res;
+    }
+
+    private static Set<Partition> createPartitions(int cnt) {
+        Random rnd = new Random(42);
+        Set<Partition> partitions = new LinkedHashSet<>();
+
+        for (int i = 0; i < cnt; i++) {
+            double[][] features = new double[100][1];
+            double[] labels = new double[100];
+
+            for (int j = 0; j < labels.length; j++) {
+                features[j][0] = rnd.nextDouble();
+                labels[j] = rnd.nextDouble() * Math.pow(10, rnd.nextInt(20));
+            }
+
+            partitions.add(new Partition(features, labels));
+        }
+
+        return partitions;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.distributed.dataset;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class PartitionTest {
+
+    @Test
+    public void testRowsAreStoredAsColumns() {
+        Partition part = new Partition(new double[][] {{1, 2}, {3, 4}, {5, 6}}, new double[] {0, 1, 0});
+
+        assertEquals(2, part.getColumnsCnt());
+        assertEquals(3, part.getRowsCnt());
+        assertArrayEquals(new double[] {1, 3, 5}, toArray(part.getColumn(0)), 0);
+        assertArrayEquals(new double[] {2, 4, 6}, toArray(part.getColumn(1)), 0);
+    }
+
+    @Test
+    public void testSortedIndices() {
+        Partition part = Partition.ofColumns(new double[][] {{3, 1, 2}, {0, 2, 1}}, new double[] {0, 1, 0});
+
+        assertArrayEquals(new int[] {1, 2, 0}, part.getSortedIndices()[0]);
+        assertArrayEquals(new int[] {0, 2, 1}, part.getSortedIndices()[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testColumnsOfDifferentSize() {
+        Partition.ofColumns(new double[][] {{1, 2}, {1}}, new double[] {0, 1});
+    }
+
+    @Test
+    public void testMap() throws IOException {
+        File file = File.createTempFile("partition", ".bin");
+        file.deleteOnExit();
+
+        ByteBuffer buf = ByteBuffer.allocate(16 + 9 * Double.BYTES).order(Partition.BYTE_ORDER);
+        buf.putLong(42);
+        buf.putLong(42);
+        for (double val : new double[] {0, 1, 0, 1, 3, 5, 2, 4, 6})
+            buf.putDouble(val);
+        buf.flip();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.write(buf);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Partition part = Partition.map(channel, 16, 3, 2);
+
+            assertEquals(2, part.getColumnsCnt());
+            assertEquals(3, part.getRowsCnt());
+            assertArrayEquals(new double[] {0, 1, 0}, toArray(part.getLabels()), 0);
+            assertArrayEquals(new double[] {1, 3, 5}, toArray(part.getColumn(0)), 0);
+            assertArrayEquals(new double[] {2, 4, 6}, toArray(part.getColumn(1)), 0);
+            assertArrayEquals(new int[] {0, 1, 2}, part.getSortedIndices()[1]);
+        }
+    }
+
+    @Test
+    public void testChunkReaderCursorIsOpenedOncePerScan() {
+        int[] opened = new int[1];
+        int[] closed = new int[1];
+
+        Partition part = Partition.ofChunks(10, 1, 4, new ChunkReader() {
+            @Override public void read(int from, int cnt, DoubleBuffer[] columns, DoubleBuffer labels) {
+                throw new AssertionError("Chunks have to be read using cursor");
+            }
+
+            @Override public Cursor open() {
+                opened[0]++;
+
+                return new Cursor() {
+                    @Override public void read(int from, int cnt, DoubleBuffer[] columns, DoubleBuffer labels) {
+                        for (int i = 0; i < cnt; i++) {
+                            columns[0].put(i, from + i);
+                            labels.put(i, -(from + i));
+                        }
+                    }
+
+                    @Override public void close() {
+                        closed[0]++;
+                    }
+                };
+            }
+        });
+
+        for (int scan = 1; scan <= 2; scan++) {
+            int row = 0;
+
+            for (Partition chunk : part.getChunks()) {
+                assertEquals(scan, opened[0]);
+
+                for (int i = 0; i < chunk.getRowsCnt(); i++, row++) {
+                    assertEquals(row, chunk.getColumn(0).get(i), 0);
+                    assertEquals(-row, chunk.getLabels().get(i), 0);
+                }
+            }
+
+            assertEquals(10, row);
+            assertEquals(scan, closed[0]);
+        }
+    }
+
+    private static double[] toArray(DoubleBuffer buf) {
+        double[] res = new double[buf.limit()];
+
+        for (int i = 0; i < res.length; i++)
+            res[i] = buf.get(i);
+
+        return res;
+    }
+}
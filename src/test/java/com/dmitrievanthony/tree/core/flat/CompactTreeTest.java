@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.flat;
+
+import com.dmitrievanthony.tree.core.ConditionalNode;
+import com.dmitrievanthony.tree.core.LeafNode;
+import com.dmitrievanthony.tree.core.Node;
+import com.dmitrievanthony.tree.core.RandomTrees;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactTreeTest {
+
+    @Test
+    public void testCompactTreeMatchesTreeOnFloatFeatures() {
+        Random rnd = new Random(0);
+        Node tree = RandomTrees.generateTree(rnd, 12);
+        CompactTree compact = CompactTreeCompiler.compile(tree);
+
+        for (int i = 0; i < 10_000; i++) {
+            double[] features = RandomTrees.generateFeatures(rnd);
+            for (int col = 0; col < features.length; col++)
+                features[col] = (float)features[col];
+
+            assertEquals(tree.predict(features), compact.predict(features), 0);
+        }
+
+        assertEquals(8L * compact.getNodesCnt() + 8L * compact.getLeafValue().length, compact.getSizeInBytes());
+    }
+
+    @Test
+    public void testThresholdBetweenFloats() {
+        double threshold = 0.1;
+        float below = CompactTreeCompiler.roundDown(threshold);
+        float above = Math.nextUp(below);
+
+        assertTrue(below < threshold && above > threshold);
+
+        Node tree = new ConditionalNode(0, threshold, new LeafNode(1), new LeafNode(0));
+        CompactTree compact = CompactTreeCompiler.compile(tree);
+
+        assertEquals(0, compact.predict(new double[] {below}), 0);
+        assertEquals(1, compact.predict(new double[] {above}), 0);
+    }
+
+    @Test
+    public void testSingleLeaf() {
+        assertEquals(3, CompactTreeCompiler.compile(new LeafNode(3)).predict(new double[0]), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testColumnDoesNotFit() {
+        CompactTreeCompiler.compile(new ConditionalNode(CompactTree.LEAF, 0, new LeafNode(1), new LeafNode(0)));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.flat;
+
+import com.dmitrievanthony.tree.core.ConditionalNode;
+import com.dmitrievanthony.tree.core.LeafNode;
+import com.dmitrievanthony.tree.core.Node;
+import com.dmitrievanthony.tree.core.RandomTrees;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class FlatTreeFileTest {
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        FlatTree tree = FlatTreeCompiler.compile(RandomTrees.generateTree(new Random(0), 10));
+
+        Path file = Files.createTempFile("tree", ".bin");
+        try {
+            FlatTreeFile.write(tree, file);
+
+            assertEquals(FlatTreeFile.size(tree), Files.size(file));
+
+            FlatTree read = FlatTreeFile.read(file);
+
+            assertEquals(tree.getRoot(), read.getRoot());
+            assertArrayEquals(tree.getCol(), read.getCol());
+            assertArrayEquals(tree.getThreshold(), read.getThreshold(), 0);
+            assertArrayEquals(tree.getChild(), read.getChild());
+            assertArrayEquals(tree.getLeafValue(), read.getLeafValue(), 0);
+
+            RandomTrees.assertSamePredictions(tree, FlatTreeFile.map(file));
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSeveralModelsInBuffer() {
+        FlatTree first = FlatTreeCompiler.compile(RandomTrees.generateTree(new Random(1), 8));
+        FlatTree second = FlatTreeCompiler.compile(new LeafNode(7));
+        FlatTree third = FlatTreeCompiler.compile(RandomTrees.generateTree(new Random(2), 6));
+
+        ByteBuffer buf = ByteBuffer.allocateDirect(FlatTreeFile.size(first) + FlatTreeFile.size(second) +
+            FlatTreeFile.size(third));
+
+        FlatTreeFile.write(first, buf);
+        FlatTreeFile.write(second, buf);
+        FlatTreeFile.write(third, buf);
+        buf.flip();
+
+        RandomTrees.assertSamePredictions(first, FlatTreeFile.wrap(buf));
+        assertEquals(7, FlatTreeFile.wrap(buf).predict(new double[0]), 0);
+        RandomTrees.assertSamePredictions(third, FlatTreeFile.read(buf));
+        assertEquals(0, buf.remaining());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadNotModelFile() throws IOException {
+        Path file = Files.createTempFile("tree", ".bin");
+        try {
+            Files.write(file, new byte[100]);
+            FlatTreeFile.read(file);
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testMapModelWithCycle() throws IOException {
+        FlatTree tree = FlatTreeCompiler.compile(RandomTrees.generateTree(new Random(3), 6));
+
+        // "Else" child of the last node refers to the root.
+        mapCorrupted(tree, 2 * (tree.getNodesCnt() - 1), 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMapModelWithMissingNode() throws IOException {
+        FlatTree tree = FlatTreeCompiler.compile(RandomTrees.generateTree(new Random(3), 6));
+
+        // "Then" child of the root refers to a node out of range.
+        mapCorrupted(tree, 1, 1_000_000);
+    }
+
+    private static void mapCorrupted(FlatTree tree, int childIdx, int childVal) throws IOException {
+        int childOff = FlatTreeFile.HEADER_SIZE + (tree.getNodesCnt() + tree.getLeavesCnt()) * Double.BYTES +
+            tree.getNodesCnt() * Integer.BYTES;
+
+        ByteBuffer buf = ByteBuffer.allocate(FlatTreeFile.size(tree)).order(FlatTreeFile.BYTE_ORDER);
+        FlatTreeFile.write(tree, buf);
+        buf.putInt(childOff + childIdx * Integer.BYTES, childVal);
+
+        Path file = Files.createTempFile("tree", ".bin");
+        try {
+            Files.write(file, buf.array());
+            FlatTreeFile.map(file);
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+}
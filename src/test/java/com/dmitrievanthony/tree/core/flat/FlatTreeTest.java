@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.flat;
+
+import com.dmitrievanthony.tree.core.ConditionalNode;
+import com.dmitrievanthony.tree.core.LeafNode;
+import com.dmitrievanthony.tree.core.Node;
+import com.dmitrievanthony.tree.core.RandomTrees;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class FlatTreeTest {
+
+    @Test
+    public void testBreadthFirstMatchesTree() {
+        Node tree = RandomTrees.generateTree(new Random(0), 8);
+
+        RandomTrees.assertSamePredictions(tree, FlatTreeCompiler.compile(tree, FlatTreeCompiler.Layout.BREADTH_FIRST));
+    }
+
+    @Test
+    public void testVanEmdeBoasMatchesTree() {
+        Node tree = RandomTrees.generateTree(new Random(1), 9);
+
+        RandomTrees.assertSamePredictions(tree, FlatTreeCompiler.compile(tree, FlatTreeCompiler.Layout.VAN_EMDE_BOAS));
+    }
+
+    @Test
+    public void testSingleLeaf() {
+        FlatTree flat = FlatTreeCompiler.compile(new LeafNode(42));
+
+        assertEquals(0, flat.getNodesCnt());
+        assertEquals(42, flat.predict(new double[] {1, 2}), 0);
+    }
+
+    @Test
+    public void testVanEmdeBoasLayout() {
+        Node tree = new ConditionalNode(0, 0,
+            new ConditionalNode(0, 2,
+                new ConditionalNode(0, 3, new LeafNode(4), new LeafNode(3)),
+                new ConditionalNode(0, 1, new LeafNode(2), new LeafNode(1))),
+            new ConditionalNode(0, -2,
+                new ConditionalNode(0, -1, new LeafNode(0), new LeafNode(-1)),
+                new ConditionalNode(0, -3, new LeafNode(-2), new LeafNode(-3))));
+
+        FlatTree bfs = FlatTreeCompiler.compile(tree, FlatTreeCompiler.Layout.BREADTH_FIRST);
+        FlatTree veb = FlatTreeCompiler.compile(tree, FlatTreeCompiler.Layout.VAN_EMDE_BOAS);
+
+        assertArrayEquals(new double[] {0, -2, 2, -3, -1, 1, 3}, bfs.getThreshold(), 0);
+        assertArrayEquals(new double[] {0, -2, -3, -1, 2, 1, 3}, veb.getThreshold(), 0);
+
+        for (double x = -4; x <= 4; x += 0.5)
+            assertEquals(tree.predict(new double[] {x}), veb.predict(new double[] {x}), 0);
+    }
+
+    @Test
+    public void testBatchPredictionMatchesSingle() {
+        Node tree = RandomTrees.generateTree(new Random(2), 10);
+        FlatTree flat = FlatTreeCompiler.compile(tree, FlatTreeCompiler.Layout.VAN_EMDE_BOAS);
+
+        Random rnd = new Random(3);
+        double[][] rows = new double[10_001][];
+        double[][] columns = new double[3][rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = RandomTrees.generateFeatures(rnd);
+            for (int col = 0; col < columns.length; col++)
+                columns[col][i] = rows[i][col];
+        }
+
+        double[] expected = new double[rows.length];
+        tree.predict(rows, expected);
+
+        for (int i = 0; i < rows.length; i++)
+            assertEquals(tree.predict(rows[i]), expected[i], 0);
+
+        double[] actual = new double[rows.length];
+
+        flat.predict(rows, actual);
+        assertArrayEquals(expected, actual, 0);
+
+        flat.predictColumns(columns, actual = new double[rows.length]);
+        assertArrayEquals(expected, actual, 0);
+
+        tree.predictColumns(columns, actual = new double[rows.length]);
+        assertArrayEquals(expected, actual, 0);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            flat.predict(rows, actual = new double[rows.length], pool);
+            assertArrayEquals(expected, actual, 0);
+
+            flat.predictColumns(columns, actual = new double[rows.length], pool);
+            assertArrayEquals(expected, actual, 0);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+}
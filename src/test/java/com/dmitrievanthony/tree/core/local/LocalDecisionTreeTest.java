@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.core.local;
+
+import com.dmitrievanthony.tree.core.Node;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LocalDecisionTreeTest {
+
+    private static final int ROWS = 400;
+
+    @Test
+    public void testPresortedClassifierMatchesDefault() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][0] > 0.3 ? (x[i][1] > 0.6 ? 1 : 2) : 0;
+
+        Node expected = new LocalDecisionTreeClassifier(4, 0).fit(copy(x), y.clone());
+        Node presorted = new LocalDecisionTreeClassifier(4, 0, true).fit(copy(x), y.clone());
+
+        assertSamePredictions(x, expected, presorted, 0);
+    }
+
+    @Test
+    public void testClassifierWithLabelsWhichAreNotCodes() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][0] > 0.3 ? (x[i][1] > 0.6 ? -1.5 : 7) : 100;
+
+        Node tree = new LocalDecisionTreeClassifier(4, 0).fit(copy(x), y.clone());
+
+        for (int i = 0; i < x.length; i++)
+            assertEquals(y[i], tree.predict(x[i]), 0);
+    }
+
+    @Test
+    public void testPresortedRegressorMatchesDefault() {
+        double[][] x = generateFeatures();
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = Math.sin(5 * x[i][0]) + x[i][1];
+
+        Node expected = new LocalDecisionTreeRegressor(5, 0).fit(copy(x), y.clone());
+        Node presorted = new LocalDecisionTreeRegressor(5, 0, true).fit(copy(x), y.clone());
+
+        // Leaf means are summed in a different order.
+        assertSamePredictions(x, expected, presorted, 1e-12);
+    }
+
+    @Test
+    public void testParallelClassifierMatchesPresorted() {
+        double[][] x = generateFeatures(20_000);
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = x[i][0] > 0.3 ? (x[i][1] > 0.6 ? 1 : 2) : (x[i][2] > 0.5 ? 3 : 0);
+
+        Node expected = new LocalDecisionTreeClassifier(8, 0, true).fit(copy(x), y.clone());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Node parallel = new LocalDecisionTreeClassifier(8, 0, pool).fit(copy(x), y.clone());
+
+            assertSamePredictions(x, expected, parallel, 0);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelRegressorMatchesPresorted() {
+        double[][] x = generateFeatures(2_000);
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            y[i] = Math.sin(5 * x[i][0]) + x[i][1];
+
+        Node expected = new LocalDecisionTreeRegressor(5, 0, true).fit(copy(x), y.clone());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Node parallel = new LocalDecisionTreeRegressor(5, 0, pool).fit(copy(x), y.clone());
+
+            assertSamePredictions(x, expected, parallel, 0);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertSamePredictions(double[][] x, Node expected, Node actual, double delta) {
+        for (double[] row : x)
+            assertEquals(expected.predict(row), actual.predict(row), delta);
+    }
+
+    private static double[][] copy(double[][] x) {
+        double[][] res = new double[x.length][];
+        for (int i = 0; i < x.length; i++)
+            res[i] = x[i].clone();
+
+        return res;
+    }
+
+    private static double[][] generateFeatures() {
+        return generateFeatures(ROWS);
+    }
+
+    private static double[][] generateFeatures(int rows) {
+        Random rnd = new Random(0);
+        double[][] x = new double[rows][];
+
+        for (int i = 0; i < x.length; i++)
+            x[i] = new double[] {rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble()};
+
+        return x;
+    }
+}
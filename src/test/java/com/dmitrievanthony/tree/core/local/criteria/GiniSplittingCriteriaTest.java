@@ -45,6 +45,31 @@ public class GiniSplittingCriteriaTest {
         assertEquals(-6.0, pnt.getImpurityVal(), 1e-6);
     }
 
+    @Test
+    public void testFindBestSplitWithArbitraryLabels() {
+        double[] labels = new double[] {-1.5, -1.5, -1.5, 60000, 60000, 60000};
+
+        SplitPoint pnt = criteria.findBestSplit(labels, 0);
+
+        assertEquals(3, pnt.getLeftSize());
+        assertEquals(-6.0, pnt.getImpurityVal(), 1e-6);
+    }
+
+    @Test
+    public void testFindBestSplitWithClassCodes() {
+        double[] labels = new double[] {5, 2, 0, 0, 0, 1, 1, 2, 1, 2, 2, 5};
+
+        SplitPoint pnt = new GiniSplitCalculator(3).findBestSplit(labels, 2, 11, 0);
+
+        assertEquals(3, pnt.getLeftSize());
+        assertEquals(-6.0, pnt.getImpurityVal(), 1e-6);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCalculatorWithoutClasses() {
+        new GiniSplitCalculator(0);
+    }
+
     @Test
     public void testFindBestSplitOnSingleElementArray() {
         double[] labels = new double[] {1};
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class LabelEncoderTest {
+
+    @Test
+    public void testFit() {
+        LabelEncoder encoder = LabelEncoder.fit(new double[] {7, -1.5, 7, 3, -1.5}, 0, 5);
+
+        assertEquals(3, encoder.size());
+        assertEquals(0, encoder.encode(-1.5));
+        assertEquals(1, encoder.encode(3));
+        assertEquals(2, encoder.encode(7));
+        assertEquals(7, encoder.decode(2), 0);
+    }
+
+    @Test
+    public void testOfMap() {
+        Map<Double, Integer> map = new HashMap<>();
+        map.put(1.0, 0);
+        map.put(0.0, 1);
+        map.put(2.0, 2);
+
+        LabelEncoder encoder = LabelEncoder.of(map);
+
+        assertEquals(0, encoder.encode(1));
+        assertEquals(1, encoder.encode(0));
+        assertEquals(2, encoder.encode(2));
+        assertEquals(1, encoder.decode(0), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEncodeUnknownLabel() {
+        new LabelEncoder(new double[] {0, 1, 2}).encode(1.5);
+    }
+
+    @Test
+    public void testGetCodesCnt() {
+        assertEquals(3, LabelEncoder.getCodesCnt(new double[] {0, 2, 1, 2}, 0, 4));
+        assertEquals(-1, LabelEncoder.getCodesCnt(new double[] {0, 0.5}, 0, 2));
+        assertEquals(-1, LabelEncoder.getCodesCnt(new double[] {0, -1}, 0, 2));
+    }
+
+    @Test
+    public void testMergeDistinct() {
+        assertArrayEquals(new double[] {-1, 0, 2, 3, 5},
+            LabelEncoder.mergeDistinct(new double[] {-1, 2, 3}, new double[] {0, 2, 5}), 0);
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dmitrievanthony.tree.utils.sort;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DoubleSortTest {
+
+    @Test
+    public void testIsSorted() {
+        assertTrue(DoubleSort.isSorted(new double[] {}));
+        assertTrue(DoubleSort.isSorted(new double[] {-1, 0, 0, 2, Double.NaN}));
+        assertFalse(DoubleSort.isSorted(new double[] {0, 2, 1}));
+        assertTrue(DoubleSort.isSorted(new double[] {3, 0, 1, 2, -1}, 1, 4));
+    }
+
+    @Test
+    public void testArgSortOfSmallArray() {
+        double[] x = {3, -1, 2, -1, Double.NaN, 0.0, -0.0};
+
+        assertArrayEquals(new int[] {1, 3, 6, 5, 2, 0, 4}, DoubleSort.argSort(x));
+        assertArrayEquals(new double[] {3, -1, 2, -1, Double.NaN, 0.0, -0.0}, x, 0);
+    }
+
+    @Test
+    public void testArgSortOfSortedArray() {
+        double[] x = new double[10_000];
+        for (int i = 0; i < x.length; i++)
+            x[i] = i / 3;
+
+        int[] idx = DoubleSort.argSort(x);
+
+        for (int i = 0; i < idx.length; i++)
+            assertEquals(i, idx[i]);
+    }
+
+    @Test
+    public void testArgSortOfRandomArrays() {
+        Random rnd = new Random(42);
+
+        for (int n : new int[] {1, 2, 17, DoubleSort.RADIX_THRESHOLD - 1, DoubleSort.RADIX_THRESHOLD, 100_000}) {
+            double[] x = new double[n];
+            for (int i = 0; i < n; i++)
+                x[i] = rnd.nextInt(4) == 0 ? rnd.nextInt(10) - 5 : rnd.nextGaussian() * 1e6;
+
+            checkArgSort(x);
+        }
+    }
+
+    @Test
+    public void testArgSortOfSpecialValues() {
+        double[] specials = {
+            Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -0.0, 0.0,
+            Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, 1, -1
+        };
+
+        Random rnd = new Random(7);
+
+        for (int n : new int[] {30, 3000}) {
+            double[] x = new double[n];
+            for (int i = 0; i < n; i++)
+                x[i] = specials[rnd.nextInt(specials.length)];
+
+            checkArgSort(x);
+        }
+    }
+
+    @Test
+    public void testArgSortOfAdversarialArrays() {
+        int n = 5000;
+
+        double[] reversed = new double[n];
+        double[] organPipe = new double[n];
+        double[] sawtooth = new double[n];
+        double[] constant = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            reversed[i] = n - i;
+            organPipe[i] = Math.min(i, n - i);
+            sawtooth[i] = i % 7;
+            constant[i] = 1;
+        }
+
+        checkArgSort(reversed);
+        checkArgSort(organPipe);
+        checkArgSort(sawtooth);
+        checkArgSort(constant);
+
+        checkArgSort(Arrays.copyOf(reversed, 300));
+        checkArgSort(Arrays.copyOf(organPipe, 300));
+        checkArgSort(Arrays.copyOf(sawtooth, 300));
+    }
+
+    @Test
+    public void testArgSortOfPrefixIntoGivenArray() {
+        Random rnd = new Random(5);
+
+        double[] x = new double[2000];
+        int[] idx = new int[2000];
+
+        for (int n : new int[] {1000, 30}) {
+            for (int i = 0; i < x.length; i++)
+                x[i] = rnd.nextDouble();
+
+            DoubleSort.argSort(x, n, idx);
+
+            int[] expected = DoubleSort.argSort(Arrays.copyOf(x, n));
+            assertArrayEquals(expected, Arrays.copyOf(idx, n));
+        }
+    }
+
+    @Test
+    public void testSort() {
+        Random rnd = new Random(3);
+
+        for (int n : new int[] {0, 1, 100, 10_000}) {
+            double[] x = new double[n];
+            for (int i = 0; i < n; i++)
+                x[i] = rnd.nextInt(3) == 0 ? -0.0 : rnd.nextGaussian();
+
+            double[] expected = x.clone();
+            Arrays.sort(expected);
+
+            DoubleSort.sort(x);
+
+            assertArrayEquals(expected, x, 0);
+        }
+    }
+
+    @Test
+    public void testSortWithDoubleSatellite() {
+        Random rnd = new Random(1);
+
+        for (int n : new int[] {100, 10_000}) {
+            double[] x = new double[n];
+            double[] y = new double[n];
+
+            for (int i = 0; i < n; i++) {
+                x[i] = rnd.nextInt(n / 10);
+                y[i] = x[i] * 2 + 1;
+            }
+
+            DoubleSort.sort(x, y);
+
+            assertTrue(DoubleSort.isSorted(x));
+            for (int i = 0; i < n; i++)
+                assertEquals(x[i] * 2 + 1, y[i], 0);
+        }
+    }
+
+    @Test
+    public void testSortWithIntSatellite() {
+        double[] x = {0.5, -3, 2, 0.5};
+        int[] y = {0, 1, 2, 3};
+
+        DoubleSort.sort(x, y);
+
+        assertArrayEquals(new double[] {-3, 0.5, 0.5, 2}, x, 0);
+        assertArrayEquals(new int[] {1, 0, 3, 2}, y);
+    }
+
+    @Test
+    public void testSortWithObjectSatellite() {
+        double[] x = {3, 1, 2};
+        String[] y = {"c", "a", "b"};
+
+        DoubleSort.sort(x, y);
+
+        assertArrayEquals(new double[] {1, 2, 3}, x, 0);
+        assertArrayEquals(new String[] {"a", "b", "c"}, y);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSortWithSatelliteOfDifferentLength() {
+        DoubleSort.sort(new double[] {2, 1}, new double[] {1});
+    }
+
+    private static void checkArgSort(double[] x) {
+        int[] idx = DoubleSort.argSort(x);
+
+        double[] expected = x.clone();
+        Arrays.sort(expected);
+
+        boolean[] seen = new boolean[x.length];
+        for (int i = 0; i < idx.length; i++) {
+            assertFalse(seen[idx[i]]);
+            seen[idx[i]] = true;
+
+            assertEquals(0, Double.compare(expected[i], x[idx[i]]));
+
+            if (i > 0 && Double.compare(x[idx[i - 1]], x[idx[i]]) == 0 && x.length >= DoubleSort.RADIX_THRESHOLD)
+                assertTrue(idx[i - 1] < idx[i]);
+        }
+    }
+}